@@ -27,25 +27,38 @@ public class BookingClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getAllBookingsByUser(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getAllBookingsByUser(long userId, BookingState state, Integer from, Integer size,
+                                                       String cursor) {
+        return getBookings("", userId, state, from, size, cursor);
     }
 
-    public ResponseEntity<Object> getAllItemBookingsByOwner(long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllItemBookingsByOwner(long userId, BookingState state, Integer from, Integer size,
+                                                            String cursor) {
+        return getBookings("/owner", userId, state, from, size, cursor);
+    }
+
+    /**
+     * Если задан cursor, сервер выдает страницу по курсору, а заголовок X-Next-Cursor
+     * из успешного ответа передается клиенту без изменений.
+     */
+    private ResponseEntity<Object> getBookings(String path, long userId, BookingState state, Integer from,
+                                               Integer size, String cursor) {
+        if (cursor == null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "from", from,
+                    "size", size
+            );
+            return get(path + "?state={state}&from={from}&size={size}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
-                "from", from,
+                "cursor", cursor,
                 "size", size
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return get(path + "?state={state}&cursor={cursor}&size={size}", userId, parameters);
     }
 
-
     public ResponseEntity<Object> createBooking(long userId, BookItemRequestDto bookItemRequestDto) {
         return post("", userId, bookItemRequestDto);
     }
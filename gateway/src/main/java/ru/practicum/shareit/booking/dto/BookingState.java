@@ -7,14 +7,15 @@ import java.util.Optional;
 public enum BookingState {
 	/**
 	 * 	Состояния бронирований: все, текущие, будущие, завершенные,
-	 * 	отклоненные, ожидающие подтверждения
+	 * 	отклоненные, ожидающие подтверждения, отмененные
 	 */
 	ALL,
 	CURRENT,
 	FUTURE,
 	PAST,
 	REJECTED,
-	WAITING;
+	WAITING,
+	CANCELED;
 
 	public static Optional<BookingState> from(String stringState) {
 		for (BookingState state : values()) {
@@ -1,30 +1,68 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.validation.Create;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
+@Slf4j
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter itemWriter;
+    private final ObjectWriter resultWriter;
+    private final Validator validator;
+    private final int importBatchSize;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ObjectMapper objectMapper, Validator validator,
+                      @Value("${shareit-server.items.bulk.batch-size:500}") int importBatchSize) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
                         .build()
         );
+        this.objectMapper = objectMapper;
+        this.itemWriter = objectMapper.writerFor(ItemDto.class);
+        this.resultWriter = objectMapper.writerFor(ItemImportResult.class);
+        this.validator = validator;
+        this.importBatchSize = importBatchSize;
     }
 
     public ResponseEntity<Object> createItem(ItemDto itemDto, Long ownerId) {
@@ -56,7 +94,126 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<Object> suggestItemNames(long userId, String text, long size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "size", size
+        );
+        return get("/suggest?text={text}&size={size}", userId, parameters);
+    }
+
     public ResponseEntity<Object> postComment(long itemId, long userId, CommentDto commentDto) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
+
+    /**
+     * Импортирует вещи из JSON-массива или NDJSON. Строки проверяются здесь, как при создании одной вещи,
+     * и корректные уходят на сервер пакетами по importBatchSize отдельными запросами. Пакет отправляется
+     * целиком до чтения ответа, поэтому HTTP-клиенту не нужно одновременно писать тело и читать ответ,
+     * а в памяти находится не больше одного пакета. Результаты пишутся в out в виде NDJSON в порядке строк.
+     * <p>
+     * Разбор, нумерация строк и проверка полей выполняются только здесь: сервер получает уже проверенный
+     * NDJSON и лишь сохраняет вещи, возвращая результат по каждой из них в порядке отправки.
+     */
+    public void importItems(long userId, InputStream in, OutputStream out) throws IOException {
+        ImportBatch batch = new ImportBatch(userId, out);
+        int row = 0;
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            for (; token != null && token != JsonToken.END_ARRAY; token = parser.nextToken(), row++) {
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    batch.add(row, null, "Строка должна быть объектом вещи");
+                    continue;
+                }
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    ItemDto itemDto = objectMapper.treeToValue(node, ItemDto.class);
+                    batch.add(row, itemDto, validate(itemDto));
+                } catch (JsonProcessingException e) {
+                    batch.add(row, null, "Некорректная строка: " + e.getOriginalMessage());
+                }
+            }
+        } catch (JsonParseException e) {
+            batch.add(row, null, "Некорректный JSON: " + e.getOriginalMessage());
+        }
+        batch.flush();
+    }
+
+    private String validate(ItemDto itemDto) {
+        Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto, Create.class);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private class ImportBatch {
+        private final long userId;
+        private final OutputStream out;
+        private final List<ItemImportResult> results = new ArrayList<>(importBatchSize);
+        private final ByteArrayOutputStream items = new ByteArrayOutputStream();
+        private int itemCount;
+
+        ImportBatch(long userId, OutputStream out) {
+            this.userId = userId;
+            this.out = out;
+        }
+
+        void add(int row, ItemDto itemDto, String error) throws IOException {
+            results.add(new ItemImportResult(row, null, error));
+            if (error == null) {
+                items.write(itemWriter.writeValueAsBytes(itemDto));
+                items.write('\n');
+                itemCount++;
+            }
+            if (results.size() == importBatchSize) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            if (itemCount > 0) {
+                Iterator<ItemImportResult> saved = send().iterator();
+                for (ItemImportResult result : results) {
+                    if (result.getError() == null) {
+                        ItemImportResult savedResult = saved.hasNext()
+                                ? saved.next()
+                                : new ItemImportResult(null, null, "Сервер не вернул результат строки");
+                        result.setId(savedResult.getId());
+                        result.setError(savedResult.getError());
+                    }
+                }
+            }
+            for (ItemImportResult result : results) {
+                out.write(resultWriter.writeValueAsBytes(result));
+                out.write('\n');
+            }
+            out.flush();
+            results.clear();
+            items.reset();
+            itemCount = 0;
+        }
+
+        private List<ItemImportResult> send() {
+            try {
+                return rest.execute("/bulk", HttpMethod.POST, request -> {
+                    HttpHeaders headers = request.getHeaders();
+                    headers.setContentType(MediaType.APPLICATION_NDJSON);
+                    headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+                    headers.set("X-Sharer-User-Id", String.valueOf(userId));
+                    items.writeTo(request.getBody());
+                }, response -> objectMapper.readerFor(ItemImportResult.class)
+                        .<ItemImportResult>readValues(response.getBody())
+                        .readAll());
+            } catch (RestClientException e) {
+                log.warn("Не удалось передать пакет вещей пользователя с ID {} на сервер", userId, e);
+                List<ItemImportResult> failed = new ArrayList<>(itemCount);
+                for (int i = 0; i < itemCount; i++) {
+                    failed.add(new ItemImportResult(null, null, "Не удалось сохранить вещь: " + e.getMessage()));
+                }
+                return failed;
+            }
+        }
+    }
 }
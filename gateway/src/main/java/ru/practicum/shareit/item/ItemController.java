@@ -1,16 +1,21 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserClient;
 import ru.practicum.shareit.validation.Create;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/items")
@@ -18,6 +23,7 @@ import javax.validation.constraints.PositiveOrZero;
 public class ItemController {
 
     private final ItemClient itemClient;
+    private final UserClient userClient;
 
     @PostMapping
     public ResponseEntity<Object> createItem(@Validated(Create.class)
@@ -26,6 +32,21 @@ public class ItemController {
         return itemClient.createItem(itemDto, userId);
     }
 
+    /**
+     * Владелец проверяется до начала импорта, пока ответ еще можно вернуть с кодом ошибки.
+     */
+    @PostMapping(path = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importItems(@RequestHeader("X-Sharer-User-Id") long userId, InputStream body) {
+        ResponseEntity<Object> owner = userClient.getUserById(userId);
+        if (!owner.getStatusCode().is2xxSuccessful()) {
+            return owner;
+        }
+        StreamingResponseBody results = out -> itemClient.importItems(userId, body, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(results);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(@RequestBody ItemDto itemDto,
                               @RequestHeader("X-Sharer-User-Id") Integer userId,
@@ -58,6 +79,14 @@ public class ItemController {
         return itemClient.findItems(userId, text, from, size);
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestItemNames(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @RequestParam(value = "text", defaultValue = "") String text,
+                                                   @Min(1) @Max(20) @RequestParam(name = "size", defaultValue = "10")
+                                                       Integer size) {
+        return itemClient.suggestItemNames(userId, text, size);
+    }
+
     @PostMapping("/{itemId}/comment")
     public ResponseEntity<Object> postComment(@Valid @RequestBody CommentDto commentDto,
                                           @RequestHeader("X-Sharer-User-Id") long userId,
@@ -3,13 +3,20 @@ package ru.practicum.shareit.user;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
@@ -24,8 +31,24 @@ public class UserClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getAllUsers() {
-        return get("");
+    /**
+     * Если задан cursor, сервер выдает страницу по курсору, а заголовок X-Next-Cursor
+     * из успешного ответа передается клиенту без изменений.
+     */
+    public ResponseEntity<Object> getAllUsers(Integer from, Integer size, String cursor) {
+        if (cursor == null) {
+            return get("?from={from}&size={size}", null, Map.of("from", from, "size", size));
+        }
+        return get("?cursor={cursor}&size={size}", null, Map.of("cursor", cursor, "size", size));
+    }
+
+    /**
+     * Копирует выгрузку NDJSON с сервера в out по мере получения, не разбирая и не накапливая ее в памяти.
+     */
+    public void exportUsers(OutputStream out) {
+        rest.execute("/export", HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON)),
+                response -> StreamUtils.copy(response.getBody(), out));
     }
 
     public ResponseEntity<Object> getUserById(long userId) {
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.State;
@@ -38,22 +40,45 @@ public class BookingController {
         return bookingService.getBookingById(userId, bookingId);
     }
 
+    /**
+     * Если передан параметр cursor (пустой для первой страницы), выдача идет по курсору,
+     * а курсор следующей страницы возвращается в заголовке X-Next-Cursor.
+     */
     @GetMapping
-    public List<BookingResponseDto> getAllBookingsByUser(
+    public ResponseEntity<List<BookingResponseDto>> getAllBookingsByUser(
             @RequestHeader("X-Sharer-User-Id") Integer userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "20") Integer size
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(required = false) String cursor
     ) {
-        return bookingService.getAllBookingsByUser(userId, State.valueOf(state), from, size);
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getAllBookingsByUser(userId, State.valueOf(state), from, size));
+        }
+        return withNextCursor(bookingService.getBookingsByUserAfter(userId, State.valueOf(state), cursor, size), size);
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getAllItemBookingsByOwner(
+    public ResponseEntity<List<BookingResponseDto>> getAllItemBookingsByOwner(
             @RequestHeader("X-Sharer-User-Id") Integer ownerId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "20") Integer size) {
-        return bookingService.getAllItemBookingsByOwner(ownerId, State.valueOf(state), from, size);
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getAllItemBookingsByOwner(ownerId, State.valueOf(state), from, size));
+        }
+        return withNextCursor(bookingService.getItemBookingsByOwnerAfter(ownerId, State.valueOf(state), cursor, size),
+                size);
+    }
+
+    private static ResponseEntity<List<BookingResponseDto>> withNextCursor(List<BookingResponseDto> bookings,
+                                                                           Integer size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.size() == size) {
+            response.header(BookingCursor.NEXT_CURSOR_HEADER,
+                    BookingCursor.of(bookings.get(bookings.size() - 1)).encode());
+        }
+        return response.body(bookings);
     }
 }
@@ -1,72 +1,53 @@
 package ru.practicum.shareit.booking.dao;
 
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingView;
 import ru.practicum.shareit.booking.model.Status;
-import ru.practicum.shareit.item.model.Item;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Integer> {
+public interface BookingRepository extends JpaRepository<Booking, Integer>, BookingRepositoryCustom {
 
-    @Query("select b from Booking as b " +
-            "join b.item as i " +
-            "where i.id = ?1 " +
-            "  and b.start <= ?3 " +
-            "  and b.end >= ?2 " +
-            "  and b.status in ('WAITING', 'APPROVED')")
-    List<Booking> findIfItemIsAvailableForBookingDates(Integer itemId, LocalDateTime start, LocalDateTime end);
+    /**
+     * Загружает бронирование одним запросом вместе с вещью, ее владельцем и автором бронирования,
+     * которые нужны для проверки доступа и ответа.
+     */
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<Booking> findWithItemAndBookerById(Integer id);
 
-    Booking findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(Integer itemId,
-                                                                     Status status,
-                                                                     LocalDateTime now);
-
-    Booking findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(Integer itemId,
-                                                                   Status status,
-                                                                   LocalDateTime now);
+    boolean existsByItemIdAndStatusInAndStartLessThanEqualAndEndGreaterThanEqual(Integer itemId,
+                                                                                 Collection<Status> statuses,
+                                                                                 LocalDateTime end,
+                                                                                 LocalDateTime start);
 
     Booking findFirstByItemIdAndBookerIdAndStatusAndEndBefore(Integer itemId,
                                                               Integer bookerId,
                                                               Status status,
                                                               LocalDateTime end);
 
-    @Query(
-            "SELECT booking " +
-                    "FROM Booking AS booking " +
-                    "WHERE booking.item IN ?1 AND booking.status = 'APPROVED'"
-    )
-    List<Booking> findApprovedBookingsFor(Collection<Item> items, Sort sort);
-
-    List<Booking> findByBookerIdOrderByStartDesc(Integer bookerId, Pageable page);
-
-    List<Booking> findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(Integer bookerId,
-                                                                          LocalDateTime start,
-                                                                          LocalDateTime end,
-                                                                          Pageable page);
-
-    List<Booking> findByBookerIdAndEndBeforeOrderByStartDesc(Integer bookerId, LocalDateTime now, Pageable page);
-
-    List<Booking> findByBookerIdAndStartAfterOrderByStartDesc(Integer bookerId, LocalDateTime now, Pageable page);
-
-    List<Booking> findByBookerIdAndStatusEqualsOrderByStartDesc(Integer bookerId, Status status, Pageable page);
-
-    List<Booking> findByItemOwnerIdOrderByStartDesc(Integer ownerId, Pageable page);
-
-    List<Booking> findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(Integer ownerId,
-                                                                             LocalDateTime start,
-                                                                             LocalDateTime end,
-                                                                             Pageable page);
-
-    List<Booking> findByItemOwnerIdAndEndBeforeOrderByStartDesc(Integer ownerId, LocalDateTime now, Pageable page);
-
-    List<Booking> findByItemOwnerIdAndStartAfterOrderByStartDesc(Integer ownerId, LocalDateTime now, Pageable page);
-
-    List<Booking> findByItemOwnerIdAndStatusEqualsOrderByStartDesc(Integer ownerId, Status status, Pageable page);
+    /**
+     * Для каждой вещи возвращает не более двух подтвержденных бронирований: последнее начавшееся
+     * и ближайшее будущее. Отбор выполняется в БД оконной функцией, поэтому объем выборки
+     * не зависит от истории бронирований и ограничен удвоенным числом вещей.
+     */
+    @Query(value = "select ranked.item_id as \"itemId\", ranked.id as \"id\", " +
+            "       ranked.start_time as \"start\", ranked.end_time as \"end\", " +
+            "       ranked.booker_id as \"bookerId\", ranked.status as \"status\", ranked.is_next as \"next\" " +
+            "from (select b.id, b.item_id, b.start_time, b.end_time, b.booker_id, b.status, " +
+            "             b.start_time > ?2 as is_next, " +
+            "             row_number() over (partition by b.item_id, b.start_time > ?2 " +
+            "                                order by case when b.start_time > ?2 then b.start_time end, " +
+            "                                         b.start_time desc) as rn " +
+            "      from bookings b " +
+            "      where b.item_id in ?1 and b.status = 'APPROVED') ranked " +
+            "where ranked.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findLastAndNextApprovedBookings(Collection<Integer> itemIds, LocalDateTime now);
 }
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.dao;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.State;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Выборка бронирований пользователя в роли автора или владельца вещи с фильтром по состоянию.
+ * Результат всегда отсортирован по (start, id) по убыванию и сразу выбирается в {@link BookingResponseDto}.
+ */
+public interface BookingRepositoryCustom {
+
+    List<BookingResponseDto> findBookings(BookingRole role, Integer userId, State state, LocalDateTime now, Pageable page);
+
+    /**
+     * Постраничная выборка по курсору (keyset): вместо OFFSET используется условие
+     * (start, id) < (cursor.start, cursor.id), поэтому стоимость любой страницы одинакова.
+     */
+    List<BookingResponseDto> findBookingsAfter(BookingRole role, Integer userId, State state, LocalDateTime now,
+                                               BookingCursor cursor, int limit);
+}
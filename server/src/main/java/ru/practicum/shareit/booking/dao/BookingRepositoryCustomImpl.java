@@ -0,0 +1,120 @@
+package ru.practicum.shareit.booking.dao;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Все сочетания роли и состояния собираются одним построителем условий, поэтому запросы различаются
+ * только набором предикатов и используют индексы bookings (booker_id, start_time, id)
+ * и bookings (item_id, start_time, id) в паре с items (owner_id).
+ * Вещь и автор присоединяются внутренними соединениями, а строки сразу собираются в DTO через select new,
+ * поэтому сущности не загружаются в контекст персистентности и не требуют отдельных запросов.
+ */
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<BookingResponseDto> findBookings(BookingRole role, Integer userId, State state, LocalDateTime now,
+                                                 Pageable page) {
+        return em.createQuery(buildQuery(role, userId, state, now, null))
+                .setFirstResult((int) page.getOffset())
+                .setMaxResults(page.getPageSize())
+                .getResultList();
+    }
+
+    @Override
+    public List<BookingResponseDto> findBookingsAfter(BookingRole role, Integer userId, State state,
+                                                      LocalDateTime now, BookingCursor cursor, int limit) {
+        return em.createQuery(buildQuery(role, userId, state, now, cursor))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private CriteriaQuery<BookingResponseDto> buildQuery(BookingRole role, Integer userId, State state,
+                                                         LocalDateTime now, BookingCursor cursor) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<BookingResponseDto> query = cb.createQuery(BookingResponseDto.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Join<Booking, User> booker = booking.join("booker");
+        Path<LocalDateTime> start = booking.get("start");
+        Path<Integer> id = booking.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(rolePredicate(cb, item, booker, role, userId));
+        Predicate statePredicate = statePredicate(cb, booking, state, now);
+        if (statePredicate != null) {
+            predicates.add(statePredicate);
+        }
+        if (cursor != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(start, cursor.getStart()),
+                    cb.and(cb.equal(start, cursor.getStart()), cb.lessThan(id, cursor.getId()))));
+        }
+
+        return query.select(cb.construct(BookingResponseDto.class,
+                        id, start, booking.get("end"), booking.get("status"),
+                        item.get("id"), item.get("name"), item.get("description"), item.get("available"),
+                        item.get("owner").get("id"), item.get("request").get("id"),
+                        booker.get("id"), booker.get("name"), booker.get("email")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(start), cb.desc(id));
+    }
+
+    private static Predicate rolePredicate(CriteriaBuilder cb, Join<Booking, Item> item, Join<Booking, User> booker,
+                                           BookingRole role, Integer userId) {
+        switch (role) {
+            case BOOKER:
+                return cb.equal(booker.get("id"), userId);
+            case OWNER:
+                return cb.equal(item.get("owner").get("id"), userId);
+            default:
+                throw new IllegalArgumentException("Неизвестная роль пользователя: " + role);
+        }
+    }
+
+    /**
+     * Возвращает null для состояния ALL, у которого нет дополнительных условий.
+     */
+    private static Predicate statePredicate(CriteriaBuilder cb, Root<Booking> booking, State state,
+                                            LocalDateTime now) {
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Status> status = booking.get("status");
+
+        switch (state) {
+            case ALL:
+                return null;
+            case CURRENT:
+                return cb.and(cb.lessThan(start, now), cb.greaterThan(end, now));
+            case PAST:
+                return cb.lessThan(end, now);
+            case FUTURE:
+                return cb.greaterThan(start, now);
+            case WAITING:
+                return cb.equal(status, Status.WAITING);
+            case REJECTED:
+                return cb.equal(status, Status.REJECTED);
+            case CANCELED:
+                return cb.equal(status, Status.CANCELED);
+            default:
+                throw new IllegalArgumentException("Неизвестное значение параметра state");
+        }
+    }
+}
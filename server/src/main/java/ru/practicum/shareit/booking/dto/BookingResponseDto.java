@@ -22,4 +22,18 @@ public class BookingResponseDto {
     private ItemDto item;
     private UserDto booker;
     private Status status;
+
+    /**
+     * Конструктор для выборки проекцией (select new) по плоскому списку столбцов бронирования,
+     * вещи и автора, без загрузки сущностей.
+     */
+    public BookingResponseDto(Integer id, LocalDateTime start, LocalDateTime end, Status status,
+                              Integer itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                              Integer itemOwnerId, Integer itemRequestId,
+                              Integer bookerId, String bookerName, String bookerEmail) {
+        this(id, start, end,
+                new ItemDto(itemId, itemName, itemDescription, itemAvailable, itemOwnerId, itemRequestId),
+                new UserDto(bookerId, bookerName, bookerEmail),
+                status);
+    }
 }
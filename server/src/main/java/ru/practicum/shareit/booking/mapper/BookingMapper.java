@@ -5,13 +5,10 @@ import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingView;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.stream.Collectors;
-
 @UtilityClass
 public class BookingMapper {
 
@@ -34,19 +31,23 @@ public class BookingMapper {
                 .build();
     }
 
-    public static BookingShortDto bookingToBookingShortDto(Booking booking) {
+    public static BookingShortDto toBookingShortDto(ItemBookingView booking) {
         return BookingShortDto.builder()
                 .id(booking.getId())
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .bookerId(booking.getBooker().getId())
+                .bookerId(booking.getBookerId())
                 .status(booking.getStatus())
                 .build();
     }
 
-    public List<BookingResponseDto> bookingsListToDto(Collection<Booking> bookings) {
-        return bookings.stream()
-                .map(BookingMapper::toBookingResponseDto)
-                .collect(Collectors.toList());
+    public static BookingShortDto bookingToBookingShortDto(Booking booking) {
+        return BookingShortDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .bookerId(booking.getBooker().getId())
+                .status(booking.getStatus())
+                .build();
     }
 }
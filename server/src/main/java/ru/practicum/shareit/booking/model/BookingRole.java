@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.model;
+
+/**
+ * Роль пользователя по отношению к бронированию: автор бронирования или владелец вещи.
+ */
+public enum BookingRole {
+    BOOKER,
+    OWNER
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Облегченное представление последнего или следующего подтвержденного бронирования вещи.
+ */
+public interface ItemBookingView {
+
+    Integer getItemId();
+
+    Integer getId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+    Integer getBookerId();
+
+    Status getStatus();
+
+    /**
+     * true для следующего бронирования, false для последнего.
+     */
+    Boolean getNext();
+}
@@ -6,7 +6,8 @@ public enum State {
     PAST,
     FUTURE,
     WAITING,
-    REJECTED;
+    REJECTED,
+    CANCELED;
 
     public static State getEnumValue(String state) {
 
@@ -17,4 +17,8 @@ public interface BookingService {
 
     List<BookingResponseDto> getAllItemBookingsByOwner(Integer ownerId, State state, Integer from, Integer size);
 
+    List<BookingResponseDto> getBookingsByUserAfter(Integer bookerId, State state, String cursor, Integer size);
+
+    List<BookingResponseDto> getItemBookingsByOwnerAfter(Integer ownerId, State state, String cursor, Integer size);
+
 }
\ No newline at end of file
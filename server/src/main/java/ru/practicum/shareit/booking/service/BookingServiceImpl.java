@@ -1,15 +1,18 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.exception.AvailabilityException;
@@ -18,25 +21,33 @@ import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 
 @Service
 @Slf4j
 public class BookingServiceImpl implements BookingService {
 
+    /**
+     * Статусы бронирований, которые занимают вещь на свои даты.
+     */
+    private static final List<Status> ACTIVE_STATUSES = List.of(Status.WAITING, Status.APPROVED);
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final UserExistenceCache userExistenceCache;
 
     public BookingServiceImpl(BookingRepository bookingRepository,
                               UserRepository userRepository,
-                              ItemRepository itemRepository) {
+                              ItemRepository itemRepository,
+                              UserExistenceCache userExistenceCache) {
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
+        this.userExistenceCache = userExistenceCache;
     }
 
     @Transactional
@@ -44,7 +55,9 @@ public class BookingServiceImpl implements BookingService {
     public BookingResponseDto createBooking(Integer bookerId, BookingDto bookingDto) {
         User booker = userRepository.findById(bookerId)
                 .orElseThrow(() -> new EntityNotFoundException("Пользователя с ID " + bookerId + " не существует"));
-        Item item = itemRepository.findById(bookingDto.getItemId())
+        // Блокировка строки вещи сериализует параллельные бронирования одной вещи:
+        // проверка пересечения дат ниже и вставка выполняются без гонок, другие вещи не затрагиваются.
+        Item item = itemRepository.findByIdForUpdate(bookingDto.getItemId())
                 .orElseThrow(() -> new EntityNotFoundException("Вещь с ID " + bookingDto.getItemId() + " не найдена"));
 
         if (!item.getAvailable()) {
@@ -59,8 +72,8 @@ public class BookingServiceImpl implements BookingService {
             throw new EntityNotFoundException("Владелец вещи не может бронировать собственную вещь");
         }
 
-        if (bookingRepository.findIfItemIsAvailableForBookingDates(
-                item.getId(), bookingDto.getStart(), bookingDto.getEnd()).size() > 0) {
+        if (bookingRepository.existsByItemIdAndStatusInAndStartLessThanEqualAndEndGreaterThanEqual(
+                item.getId(), ACTIVE_STATUSES, bookingDto.getEnd(), bookingDto.getStart())) {
             throw new AvailabilityException("Вещь с ID " + item.getId() + " уже забронирована на указанные даты");
         }
 
@@ -70,15 +83,22 @@ public class BookingServiceImpl implements BookingService {
         booking.setItem(item);
         booking.setStatus(Status.WAITING);
 
-        return BookingMapper.toBookingResponseDto(bookingRepository.save(booking));
+        try {
+            // flush здесь, а не при фиксации, чтобы нарушение ограничения перехватывалось в этом блоке
+            return BookingMapper.toBookingResponseDto(bookingRepository.saveAndFlush(booking));
+        } catch (DataIntegrityViolationException e) {
+            // на PostgreSQL пересечение дат дополнительно запрещено ограничением ex_bookings_item_period
+            throw new AvailabilityException("Вещь с ID " + item.getId() + " уже забронирована на указанные даты");
+        }
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public BookingResponseDto getBookingById(Integer userId, Integer bookingId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Пользователя с ID " + userId + " не существует"));
-        Booking booking = bookingRepository.findById(bookingId)
+        if (!userExistenceCache.exists(userId)) {
+            throw new EntityNotFoundException("Пользователя с ID " + userId + " не существует");
+        }
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
                 .orElseThrow(() -> new EntityNotFoundException("Бронирования с ID " + bookingId + " не существует"));
 
         Integer bookerId = booking.getBooker().getId();
@@ -92,9 +112,10 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public BookingResponseDto approveBooking(Integer userId, Integer bookingId, Boolean isApproved) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Пользователя с ID " + userId + " не существует"));
-        Booking booking = bookingRepository.findById(bookingId)
+        if (!userExistenceCache.exists(userId)) {
+            throw new EntityNotFoundException("Пользователя с ID " + userId + " не существует");
+        }
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
                 .orElseThrow(() -> new EntityNotFoundException("Бронирования с ID " + bookingId + " не существует"));
 
         Integer ownerId = booking.getItem().getOwner().getId();
@@ -119,96 +140,49 @@ public class BookingServiceImpl implements BookingService {
         return BookingMapper.toBookingResponseDto(finalBooking);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<BookingResponseDto> getAllBookingsByUser(Integer bookerId, State bookingState, Integer from, Integer size) {
-        User user = userRepository.findById(bookerId)
-                .orElseThrow(() -> new EntityNotFoundException("Пользователя с ID " + bookerId + " не существует"));
-
-        Pageable page = PageRequest.of((int) from / size, size);
-
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> userBookings = Collections.emptyList();
-
-        switch (bookingState) {
-            case ALL:
-                userBookings = bookingRepository.findByBookerIdOrderByStartDesc(bookerId, page);
-                log.info("Вывод всех бронирований пользователя {}, (ALL)", bookerId);
-                break;
-            case CURRENT:
-                userBookings = bookingRepository
-                        .findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(bookerId, now, now, page);
-                log.info("Вывод текущих бронирований пользователя {}, (CURRENT)", bookerId);
-                break;
-            case PAST:
-                userBookings = bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(bookerId, now, page);
-                log.info("Вывод прошлых бронирований пользователя {}, (PAST)", bookerId);
-                break;
-            case FUTURE:
-                userBookings = bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(bookerId, now, page);
-                log.info("Вывод будущих бронирований пользователя {}, (FUTURE)", bookerId);
-                break;
-            case WAITING:
-                userBookings = bookingRepository
-                        .findByBookerIdAndStatusEqualsOrderByStartDesc(bookerId, Status.WAITING, page);
-                log.info("Вывод всех бронирований пользователя {} со статусом WAITING", bookerId);
-                break;
-            case REJECTED:
-                userBookings = bookingRepository
-                        .findByBookerIdAndStatusEqualsOrderByStartDesc(bookerId, Status.REJECTED, page);
-                log.info("Вывод всех бронирований пользователя {} со статусом REJECTED", bookerId);
-                break;
-            default:
-                throw new IllegalArgumentException("Неизвестное значение параметра state");
-        }
-        return BookingMapper.bookingsListToDto(userBookings);
+        return getBookings(BookingRole.BOOKER, bookerId, bookingState, from, size);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<BookingResponseDto> getAllItemBookingsByOwner(Integer ownerId, State bookingState, Integer from, Integer size) {
-        User owner = userRepository.findById(ownerId)
-                .orElseThrow(() -> new EntityNotFoundException("Пользователя с ID " + ownerId + " не существует"));
-
-        Pageable page = PageRequest.of((int) from / size, size);
-
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> ownerBookings;
-
-        switch (bookingState) {
-            case ALL:
-                ownerBookings = bookingRepository.findByItemOwnerIdOrderByStartDesc(ownerId, page);
-                log.info("Вывод всех бронирований вещей пользователя {}, (ALL)", ownerId);
-                break;
-            case CURRENT:
-                ownerBookings = bookingRepository
-                        .findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(ownerId, now, now, page);
-                log.info("Вывод текущих бронирований пользователя {}, (CURRENT)", ownerId);
-                break;
-            case PAST:
-                ownerBookings = bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStartDesc(ownerId, now, page);
-                log.info("Вывод прошлых бронирований пользователя {}, (PAST)", ownerId);
-                break;
-            case FUTURE:
-                ownerBookings = bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc(ownerId, now, page);
-                log.info("Вывод будущих бронирований пользователя {}, (FUTURE)", ownerId);
-                break;
-            case WAITING:
-                ownerBookings = bookingRepository
-                        .findByItemOwnerIdAndStatusEqualsOrderByStartDesc(
-                                ownerId,
-                                Status.WAITING,
-                                page);
-                log.info("Вывод всех бронирований пользователя {} со статусом WAITING", ownerId);
-                break;
-            case REJECTED:
-                ownerBookings = bookingRepository
-                        .findByItemOwnerIdAndStatusEqualsOrderByStartDesc(ownerId,
-                                Status.REJECTED,
-                                page);
-                log.info("Вывод всех бронирований пользователя {} со статусом REJECTED", ownerId);
-                break;
-            default:
-                throw new IllegalArgumentException("Неизвестное значение параметра state");
+        return getBookings(BookingRole.OWNER, ownerId, bookingState, from, size);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingResponseDto> getBookingsByUserAfter(Integer bookerId, State state, String cursor, Integer size) {
+        return getBookingsAfter(BookingRole.BOOKER, bookerId, state, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingResponseDto> getItemBookingsByOwnerAfter(Integer ownerId, State state, String cursor,
+                                                                Integer size) {
+        return getBookingsAfter(BookingRole.OWNER, ownerId, state, cursor, size);
+    }
+
+    private List<BookingResponseDto> getBookings(BookingRole role, Integer userId, State state, Integer from,
+                                                 Integer size) {
+        if (!userExistenceCache.exists(userId)) {
+            throw new EntityNotFoundException("Пользователя с ID " + userId + " не существует");
+        }
+
+        Pageable page = PageRequest.of(from / size, size);
+        log.info("Вывод бронирований пользователя {} в роли {}, ({})", userId, role, state);
+        return bookingRepository.findBookings(role, userId, state, LocalDateTime.now(), page);
+    }
+
+    private List<BookingResponseDto> getBookingsAfter(BookingRole role, Integer userId, State state, String cursor,
+                                                      Integer size) {
+        if (!userExistenceCache.exists(userId)) {
+            throw new EntityNotFoundException("Пользователя с ID " + userId + " не существует");
         }
-        return BookingMapper.bookingsListToDto(ownerBookings);
+        log.info("Вывод бронирований пользователя {} в роли {}, ({}) после курсора {}", userId, role, state, cursor);
+        return bookingRepository.findBookingsAfter(
+                role, userId, state, LocalDateTime.now(), BookingCursor.decode(cursor), size);
     }
 }
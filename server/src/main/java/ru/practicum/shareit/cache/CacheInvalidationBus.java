@@ -0,0 +1,21 @@
+package ru.practicum.shareit.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Шина, по которой узлы сервера сообщают друг другу об изменениях сущностей, чтобы сбросить
+ * их копии в локальных кэшах.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Отправляет сообщение. Внутри транзакции оно доставляется только после ее фиксации,
+     * при откате не доставляется.
+     */
+    void publish(EntityChangeEvent event);
+
+    /**
+     * Подписывает на сообщения всех узлов, включая текущий.
+     */
+    void subscribe(Consumer<EntityChangeEvent> listener);
+}
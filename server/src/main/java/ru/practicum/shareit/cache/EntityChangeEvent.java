@@ -0,0 +1,36 @@
+package ru.practicum.shareit.cache;
+
+import lombok.Value;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Сообщение об изменении сущностей одного типа, рассылаемое всем узлам после фиксации транзакции.
+ */
+@Value
+public class EntityChangeEvent {
+
+    /**
+     * ID узла, изменившего сущности; свой узел сообщение не обрабатывает.
+     */
+    String origin;
+    EntityType type;
+    List<Integer> ids;
+
+    public String encode() {
+        return origin + ":" + type + ":" + ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    public static EntityChangeEvent decode(String payload) {
+        String[] parts = payload.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Некорректное сообщение об изменении: " + payload);
+        }
+        List<Integer> ids = Arrays.stream(parts[2].split(","))
+                .map(Integer::valueOf)
+                .collect(Collectors.toList());
+        return new EntityChangeEvent(parts[0], EntityType.valueOf(parts[1]), ids);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Сообщает другим узлам об изменениях сущностей и передает их сообщения локальным кэшам
+ * как события приложения {@link EntityChangeEvent}. Свои изменения узел учитывает в кэшах сам.
+ */
+@Component
+@Slf4j
+public class EntityChangeNotifier {
+
+    private static final int MAX_IDS_PER_EVENT = 500;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CacheInvalidationBus bus;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LocalCacheResync localCacheResync;
+
+    public EntityChangeNotifier(CacheInvalidationBus bus, ApplicationEventPublisher eventPublisher,
+                                LocalCacheResync localCacheResync) {
+        this.bus = bus;
+        this.eventPublisher = eventPublisher;
+        this.localCacheResync = localCacheResync;
+        bus.subscribe(this::onEvent);
+    }
+
+    public void userChanged(Integer userId) {
+        bus.publish(new EntityChangeEvent(nodeId, EntityType.USER, List.of(userId)));
+    }
+
+    public void itemChanged(Integer itemId) {
+        itemsChanged(List.of(itemId));
+    }
+
+    /**
+     * Сообщает об изменении многих вещей сразу; ID делятся на сообщения так, чтобы каждое уместилось
+     * в ограничение NOTIFY на размер сообщения (8000 байт).
+     */
+    public void itemsChanged(List<Integer> itemIds) {
+        for (int from = 0; from < itemIds.size(); from += MAX_IDS_PER_EVENT) {
+            List<Integer> ids = List.copyOf(itemIds.subList(from, Math.min(from + MAX_IDS_PER_EVENT, itemIds.size())));
+            bus.publish(new EntityChangeEvent(nodeId, EntityType.ITEM, ids));
+        }
+    }
+
+    private void onEvent(EntityChangeEvent event) {
+        if (nodeId.equals(event.getOrigin())) {
+            return;
+        }
+        log.debug("Сброс кэшей по изменению на другом узле: {} {}", event.getType(), event.getIds());
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            // повторно это сообщение не придет, поэтому кэши перестраиваются целиком, с повторами до успеха
+            log.warn("Не удалось обработать сообщение об изменении {} {}", event.getType(), event.getIds(), e);
+            localCacheResync.request("не обработано сообщение об изменении " + event.getType() + " " + event.getIds());
+        }
+    }
+}
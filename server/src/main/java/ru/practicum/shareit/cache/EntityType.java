@@ -0,0 +1,9 @@
+package ru.practicum.shareit.cache;
+
+/**
+ * Сущности, копии которых хранятся в локальных кэшах узлов.
+ */
+public enum EntityType {
+    USER,
+    ITEM
+}
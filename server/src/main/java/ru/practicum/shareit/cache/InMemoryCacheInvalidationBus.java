@@ -0,0 +1,46 @@
+package ru.practicum.shareit.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Шина в пределах одного процесса: для запуска одним узлом и для тестов, где несколько узлов
+ * подписаны на один экземпляр шины.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.cache.invalidation-bus", havingValue = "memory", matchIfMissing = true)
+public class InMemoryCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final List<Consumer<EntityChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(EntityChangeEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(event);
+                }
+            });
+        } else {
+            deliver(event);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<EntityChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    private void deliver(EntityChangeEvent event) {
+        for (Consumer<EntityChangeEvent> listener : listeners) {
+            listener.accept(event);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полная пересинхронизация локальных кэшей узла. Публикует {@link LocalCachesResyncEvent} в вызывающем
+ * потоке; если обработчик не справился (например, БД недоступна), попытка повторяется через
+ * retryInterval, пока не пройдет успешно.
+ */
+@Component
+@Slf4j
+public class LocalCacheResync {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration retryInterval;
+    private final ScheduledExecutorService retryExecutor = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "local-cache-resync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> retry;
+
+    public LocalCacheResync(ApplicationEventPublisher eventPublisher,
+                            @Value("${shareit.cache.resync.retry-interval:5s}") Duration retryInterval) {
+        this.eventPublisher = eventPublisher;
+        this.retryInterval = retryInterval;
+    }
+
+    public void request(String reason) {
+        log.warn("Локальные кэши перестраиваются по БД: {}", reason);
+        resync();
+    }
+
+    private synchronized void resync() {
+        try {
+            eventPublisher.publishEvent(new LocalCachesResyncEvent());
+            if (retry != null) {
+                retry.cancel(false);
+                retry = null;
+            }
+            log.info("Локальные кэши перестроены");
+        } catch (RuntimeException e) {
+            log.warn("Не удалось перестроить локальные кэши, повтор через {}", retryInterval, e);
+            if (retry == null) {
+                retry = retryExecutor.schedule(this::retryResync, retryInterval.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private synchronized void retryResync() {
+        retry = null;
+        resync();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        retryExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.cache;
+
+/**
+ * Событие приложения: сообщения об изменениях на других узлах могли быть потеряны, и локальные кэши
+ * узла нужно перестроить по БД целиком.
+ */
+public class LocalCachesResyncEvent {
+}
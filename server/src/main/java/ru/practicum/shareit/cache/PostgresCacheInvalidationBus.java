@@ -0,0 +1,139 @@
+package ru.practicum.shareit.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Шина на LISTEN/NOTIFY PostgreSQL. NOTIFY выполняется в соединении текущей транзакции, поэтому
+ * PostgreSQL доставляет сообщение только после фиксации. Сообщения принимает отдельный поток через
+ * собственное соединение вне пула, чтобы не занимать соединение пула постоянно.
+ * <p>
+ * Сообщения, отправленные, пока соединение потока потеряно, не доставляются. Часть локальных кэшей
+ * (поисковый индекс, словарь автодополнения, фильтр email) не имеет срока хранения, поэтому после
+ * восстановления подписки все локальные кэши перестраиваются по БД через {@link LocalCacheResync}.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.cache.invalidation-bus", havingValue = "postgres")
+@Slf4j
+public class PostgresCacheInvalidationBus implements CacheInvalidationBus, SmartLifecycle {
+
+    static final String CHANNEL = "shareit_cache_invalidation";
+    private static final int POLL_TIMEOUT_MS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final Duration retryInterval;
+    private final LocalCacheResync localCacheResync;
+    private final List<Consumer<EntityChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresCacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                        DataSourceProperties dataSourceProperties,
+                                        @Value("${shareit.cache.invalidation-bus.retry-interval:5s}")
+                                        Duration retryInterval,
+                                        LocalCacheResync localCacheResync) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.retryInterval = retryInterval;
+        this.localCacheResync = localCacheResync;
+    }
+
+    @Override
+    public void publish(EntityChangeEvent event) {
+        jdbcTemplate.query("select pg_notify(?, ?)", rs -> { }, CHANNEL, event.encode());
+    }
+
+    @Override
+    public void subscribe(Consumer<EntityChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean disconnected = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+                log.info("Подписка на канал {} для сброса кэшей", CHANNEL);
+                if (disconnected) {
+                    // подписка уже действует, так что изменения после этой точки не потеряются
+                    localCacheResync.request("восстановлена подписка на канал " + CHANNEL);
+                    disconnected = false;
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                disconnected = true;
+                log.warn("Потеряно соединение для сообщений о сбросе кэшей, повтор через {}", retryInterval, e);
+                try {
+                    Thread.sleep(retryInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void deliver(String payload) {
+        EntityChangeEvent event;
+        try {
+            event = EntityChangeEvent.decode(payload);
+        } catch (IllegalArgumentException e) {
+            log.warn("Пропущено сообщение о сбросе кэшей: {}", payload, e);
+            return;
+        }
+        for (Consumer<EntityChangeEvent> listener : listeners) {
+            listener.accept(event);
+        }
+    }
+}
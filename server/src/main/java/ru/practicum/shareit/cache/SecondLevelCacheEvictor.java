@@ -0,0 +1,38 @@
+package ru.practicum.shareit.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Удаляет из кэша второго уровня сущности, измененные на других узлах. Выполняется раньше остальных
+ * обработчиков, чтобы они читали из БД уже новое состояние.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onEntityChanged(EntityChangeEvent event) {
+        Class<?> entityClass = event.getType() == EntityType.USER ? User.class : Item.class;
+        for (Integer id : event.getIds()) {
+            entityManagerFactory.getCache().evict(entityClass, id);
+        }
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onResync(LocalCachesResyncEvent event) {
+        entityManagerFactory.getCache().evict(User.class);
+        entityManagerFactory.getCache().evict(Item.class);
+    }
+}
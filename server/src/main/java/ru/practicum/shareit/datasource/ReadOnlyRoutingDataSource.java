@@ -0,0 +1,68 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Выдает соединения реплики для транзакций readOnly и основной БД для всех остальных.
+ * Если реплика недоступна, чтение выполняется на основной БД, а новая попытка обратиться
+ * к реплике делается не раньше чем через retryInterval.
+ * <p>
+ * Признак readOnly выставляется после начала JPA-транзакции, поэтому источник данных
+ * используется через LazyConnectionDataSourceProxy, который берет соединение только перед первым запросом.
+ */
+@Slf4j
+public class ReadOnlyRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long retryIntervalNanos;
+    private volatile long replicaRetryAt;
+
+    public ReadOnlyRoutingDataSource(DataSource primary, DataSource replica, Duration retryInterval) {
+        this.primary = primary;
+        this.replica = replica;
+        this.retryIntervalNanos = retryInterval.toNanos();
+        this.replicaRetryAt = System.nanoTime();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (useReplica()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                onReplicaFailure(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (useReplica()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                onReplicaFailure(e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    private boolean useReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && System.nanoTime() - replicaRetryAt >= 0;
+    }
+
+    private void onReplicaFailure(SQLException e) {
+        replicaRetryAt = System.nanoTime() + retryIntervalNanos;
+        log.warn("Реплика БД недоступна, чтение выполняется на основной БД: {}", e.getMessage());
+    }
+}
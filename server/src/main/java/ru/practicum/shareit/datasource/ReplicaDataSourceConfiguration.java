@@ -0,0 +1,63 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Подключается, если задан адрес реплики shareit.datasource.replica.url. Тогда транзакции readOnly
+ * читают из реплики, а остальные работают с основной БД из spring.datasource.*.
+ * Пользователь и пароль реплики по умолчанию совпадают с основной БД.
+ * <p>
+ * Оба пула создаются внутри одного бина, чтобы приложение, инициализация схемы и подсчет запросов
+ * видели единственный источник данных.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty("shareit.datasource.replica.url")
+public class ReplicaDataSourceConfiguration implements DisposableBean {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    public DataSource dataSource(
+            DataSourceProperties properties,
+            @Value("${shareit.datasource.replica.url}") String url,
+            @Value("${shareit.datasource.replica.username:#{null}}") String username,
+            @Value("${shareit.datasource.replica.password:#{null}}") String password,
+            @Value("${shareit.datasource.replica.connection-timeout:2s}") Duration connectionTimeout,
+            @Value("${shareit.datasource.replica.retry-interval:30s}") Duration retryInterval) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+
+        HikariDataSource replica = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username != null ? username : properties.determineUsername())
+                .password(password != null ? password : properties.determinePassword())
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        replica.setConnectionTimeout(connectionTimeout.toMillis());
+        // недоступная при старте реплика не должна мешать запуску приложения
+        replica.setInitializationFailTimeout(-1);
+
+        pools.add(primary);
+        pools.add(replica);
+        return new LazyConnectionDataSourceProxy(new ReadOnlyRoutingDataSource(primary, replica, retryInterval));
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -1,13 +1,20 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.service.ItemBulkImporter;
 import ru.practicum.shareit.item.service.ItemService;
+
+import java.io.InputStream;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping("/items")
@@ -15,6 +22,7 @@ import java.util.Collection;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ItemBulkImporter itemBulkImporter;
 
     @PostMapping
     public ItemDto createItem(@RequestBody ItemDto itemDto,
@@ -22,6 +30,20 @@ public class ItemController {
         return itemService.createItem(itemDto, userId);
     }
 
+    /**
+     * Импорт вещей из NDJSON, проверенного шлюзом. В ответе NDJSON с результатом по каждой вещи.
+     */
+    @PostMapping(path = "/bulk",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importItems(@RequestHeader("X-Sharer-User-Id") Integer userId,
+                                                             InputStream body) {
+        itemBulkImporter.checkOwner(userId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> itemBulkImporter.importItems(userId, body, out));
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@RequestBody ItemDto itemDto,
                               @RequestHeader("X-Sharer-User-Id") Integer userId,
@@ -45,8 +67,16 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public Collection<ItemDto> findItems(@RequestParam(name = "text") String text) {
-        return itemService.findItems(text);
+    public Collection<ItemDto> findItems(@RequestParam(name = "text") String text,
+                                         @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                         @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemService.findItems(text, from, size);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggestItemNames(@RequestParam(name = "text") String text,
+                                         @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemService.suggestItemNames(text, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -4,6 +4,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
@@ -12,12 +13,22 @@ import java.util.List;
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
 
+    // автор присоединяется сразу, иначе CommentMapper загружает его отдельным запросом для каждого отзыва
     @Query(
             "SELECT comment " +
                     "FROM Comment AS comment " +
+                    "JOIN FETCH comment.author " +
                     "WHERE comment.item IN ?1"
     )
     List<Comment> findCommentsForItemsIn(List<Item> items, Sort sort);
 
-    List<Comment> findByItemId(Integer itemId);
+    @Query("SELECT new ru.practicum.shareit.item.dto.CommentResponseDto(" +
+            "           comment.id, comment.text, author.name, comment.created, " +
+            "           item.id, item.name, item.description, item.available, item.owner.id, item.request.id) " +
+            "FROM Comment AS comment " +
+            "JOIN comment.author AS author " +
+            "JOIN comment.item AS item " +
+            "WHERE item.id = ?1 " +
+            "ORDER BY comment.id")
+    List<CommentResponseDto> findResponsesByItemId(Integer itemId);
 }
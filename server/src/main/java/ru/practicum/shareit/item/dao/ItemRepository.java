@@ -1,23 +1,80 @@
 package ru.practicum.shareit.item.dao;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Integer> {
 
+    /**
+     * Загружает вещь с блокировкой строки (SELECT ... FOR UPDATE) до конца транзакции,
+     * чтобы бронирования одной вещи создавались по очереди.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(Integer id);
+
+    @EntityGraph(attributePaths = "owner")
     List<Item> findAllByOwnerIdOrderById(Integer ownerId, Pageable page);
 
-    @Query("select i from Item i " +
-            "where lower(i.name) like lower(concat('%', ?1, '%')) " +
-            "or lower(i.description) like lower(concat('%', ?1, '%')) " +
-            "and i.available = true ")
-    List<Item> findBySearchKey(String searchKey);
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(" +
+            "           i.id, i.name, i.description, i.available, i.owner.id, i.request.id) " +
+            "from Item i " +
+            "where (lower(i.name) like lower(concat('%', ?1, '%')) " +
+            "    or lower(i.description) like lower(concat('%', ?1, '%'))) " +
+            "  and i.available = true ")
+    List<ItemDto> findBySearchKey(String searchKey, Pageable page);
+
+    @Query(value = "select i.id as \"id\", i.name as \"name\", i.description as \"description\", " +
+            "       i.available as \"available\", i.owner_id as \"ownerId\", i.request_id as \"requestId\" " +
+            "from items i " +
+            "where i.available = true " +
+            "  and i.search_vector @@ to_tsquery('russian', ?1) " +
+            "order by ts_rank(i.search_vector, to_tsquery('russian', ?1)) desc, i.id " +
+            "limit ?2 offset ?3", nativeQuery = true)
+    List<ItemView> findByFullTextQuery(String tsQuery, int limit, long offset);
+
+    @Query(value = "select i.id as \"id\", i.name as \"name\", i.description as \"description\", " +
+            "       i.available as \"available\", i.owner_id as \"ownerId\", i.request_id as \"requestId\" " +
+            "from items i " +
+            "where i.available = true " +
+            "  and (lower(i.name || ' ' || i.description) like '%' || ?1 || '%' " +
+            "       or ?1 <% lower(i.name || ' ' || i.description)) " +
+            "order by word_similarity(?1, lower(i.name || ' ' || i.description)) desc, i.id " +
+            "limit ?2 offset ?3", nativeQuery = true)
+    List<ItemView> findBySimilarity(String text, int limit, long offset);
 
+    // явный JPQL: производный запрос соединял requests через left join и фильтровал по requests.id,
+    // из-за чего индекс items (request_id) не использовался; владельцы разных вещей присоединяются сразу
+    @Query("select i from Item i join fetch i.owner where i.request.id in ?1")
     List<Item> findAllByRequestIdIn(List<Integer> itemRequests);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(" +
+            "           i.id, i.name, i.description, i.available, i.owner.id, i.request.id) " +
+            "from Item i " +
+            "where i.id in ?1 and i.available = true " +
+            "order by i.id")
+    List<ItemDto> findAvailableDtosByIdIn(Collection<Integer> ids);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemResponseDto(" +
+            "           i.id, i.name, i.description, i.available, o.id, o.name, o.email) " +
+            "from Item i join i.owner o " +
+            "where i.id = ?1")
+    Optional<ItemResponseDto> findResponseById(Integer id);
+
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findAllByIdGreaterThanOrderById(Integer id, Pageable page);
 }
@@ -14,4 +14,15 @@ public class CommentResponseDto {
     private String authorName;
     private LocalDateTime created;
 
+    /**
+     * Конструктор для выборки проекцией (select new) вместе с вещью и именем автора, без загрузки сущностей.
+     */
+    public CommentResponseDto(Integer id, String text, String authorName, LocalDateTime created,
+                              Integer itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                              Integer itemOwnerId, Integer itemRequestId) {
+        this(id, text,
+                new ItemDto(itemId, itemName, itemDescription, itemAvailable, itemOwnerId, itemRequestId),
+                authorName, created);
+    }
+
 }
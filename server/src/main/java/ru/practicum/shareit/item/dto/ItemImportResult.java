@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат импорта одной строки: ID созданной вещи или описание ошибки.
+ * Строки нумеруются с нуля в порядке следования в теле запроса.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemImportResult {
+    private Integer row;
+    private Integer id;
+    private String error;
+
+    public static ItemImportResult created(Integer id) {
+        return new ItemImportResult(null, id, null);
+    }
+
+    public static ItemImportResult failed(String error) {
+        return new ItemImportResult(null, null, error);
+    }
+}
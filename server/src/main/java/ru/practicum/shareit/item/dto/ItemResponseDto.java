@@ -23,6 +23,18 @@ public class ItemResponseDto implements Comparable<ItemResponseDto> {
     private BookingShortDto lastBooking;
     private BookingShortDto nextBooking;
 
+    /**
+     * Конструктор для выборки проекцией (select new) вместе с владельцем, без загрузки сущностей.
+     */
+    public ItemResponseDto(Integer id, String name, String description, Boolean available,
+                           Integer ownerId, String ownerName, String ownerEmail) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.owner = new UserDto(ownerId, ownerName, ownerEmail);
+    }
+
     @Override
     public int compareTo(ItemResponseDto o) {
         return this.getId() - o.getId();
@@ -1,13 +1,13 @@
 package ru.practicum.shareit.item.mapper;
 
 import lombok.experimental.UtilityClass;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.dto.ItemResponseDtoForRequest;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
 import java.util.Collection;
@@ -37,9 +37,26 @@ public class ItemMapper {
                 .build();
     }
 
+    public ItemDto viewToDto(ItemView item) {
+        return ItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .requestId(item.getRequestId())
+                .ownerId(item.getOwnerId())
+                .build();
+    }
+
+    public List<ItemDto> viewsListToDto(Collection<ItemView> items) {
+        return items.stream()
+                .map(ItemMapper::viewToDto)
+                .collect(Collectors.toList());
+    }
+
     public ItemResponseDto itemToItemResponseDto(Item item,
-                                                 Booking lastBooking,
-                                                 Booking nextBooking, List<Comment> comments) {
+                                                 BookingShortDto lastBooking,
+                                                 BookingShortDto nextBooking, List<Comment> comments) {
 
         ItemResponseDto itemResponseDto = new ItemResponseDto();
         itemResponseDto.setId(item.getId());
@@ -48,23 +65,12 @@ public class ItemMapper {
         itemResponseDto.setAvailable(item.getAvailable());
         itemResponseDto.setOwner(UserMapper.userToDto(item.getOwner()));
         itemResponseDto.setComments(CommentMapper.commentsListToDto(comments));
-
-        if (lastBooking != null) {
-            itemResponseDto.setLastBooking(BookingMapper.bookingToBookingShortDto(lastBooking));
-        }
-        if (nextBooking != null) {
-            itemResponseDto.setNextBooking(BookingMapper.bookingToBookingShortDto(nextBooking));
-        }
+        itemResponseDto.setLastBooking(lastBooking);
+        itemResponseDto.setNextBooking(nextBooking);
 
         return itemResponseDto;
     }
 
-    public Collection<ItemDto> itemsListToDto(Collection<Item> items) {
-        return items.stream()
-                .map(ItemMapper::itemToDto)
-                .collect(Collectors.toList());
-    }
-
     public ItemResponseDtoForRequest toItemResponseDtoForRequest(Item item, Integer requestId) {
         return ItemResponseDtoForRequest.builder()
                 .id(item.getId())
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.model;
+
+/**
+ * Столбцы вещи, нужные для ответа поиска, без загрузки сущности и ее владельца.
+ */
+public interface ItemView {
+
+    Integer getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Integer getOwnerId();
+
+    Integer getRequestId();
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Словарь названий доступных вещей для автодополнения.
+ * Названия хранятся отсортированными по нормализованному виду, поэтому подсказки по префиксу —
+ * это выборка первых элементов диапазона ключей за O(log n + limit), без обращения к БД.
+ */
+@Component
+@Slf4j
+public class ItemNameSuggester {
+
+    private final int maxEntries;
+    private final ConcurrentNavigableMap<String, Suggestion> suggestions = new ConcurrentSkipListMap<>();
+    private final Map<Integer, String> keysByItem = new ConcurrentHashMap<>();
+    /**
+     * Названия в порядке возрастания числа вещей; первое вытесняется при заполнении словаря.
+     * Изменяется только под блокировкой объекта.
+     */
+    private final NavigableSet<Suggestion> byUsage = new TreeSet<>(
+            Comparator.<Suggestion>comparingInt(suggestion -> suggestion.itemIds.size())
+                    .thenComparing(suggestion -> suggestion.key));
+
+    public ItemNameSuggester(@Value("${shareit.suggest.max-entries:100000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public int size() {
+        return suggestions.size();
+    }
+
+    public List<Integer> itemIds() {
+        return new ArrayList<>(keysByItem.keySet());
+    }
+
+    public synchronized void update(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            remove(item.getId());
+            return;
+        }
+
+        String key = normalize(item.getName());
+        String oldKey = keysByItem.get(item.getId());
+        if (key.equals(oldKey)) {
+            return;
+        }
+        if (oldKey != null) {
+            remove(item.getId());
+        }
+        if (key.isEmpty()) {
+            return;
+        }
+
+        Suggestion suggestion = suggestions.get(key);
+        if (suggestion == null) {
+            // при исчерпании лимита вытесняется название, которое носит меньше всего вещей
+            if (suggestions.size() >= maxEntries) {
+                evictLeastUsed();
+            }
+            suggestion = new Suggestion(key, item.getName().trim());
+            suggestions.put(key, suggestion);
+        } else {
+            byUsage.remove(suggestion);
+        }
+        suggestion.itemIds.add(item.getId());
+        byUsage.add(suggestion);
+        keysByItem.put(item.getId(), key);
+    }
+
+    public synchronized void remove(Integer itemId) {
+        String key = keysByItem.remove(itemId);
+        if (key == null) {
+            return;
+        }
+        Suggestion suggestion = suggestions.get(key);
+        if (suggestion == null) {
+            return;
+        }
+        byUsage.remove(suggestion);
+        suggestion.itemIds.remove(itemId);
+        if (suggestion.itemIds.isEmpty()) {
+            suggestions.remove(key);
+        } else {
+            byUsage.add(suggestion);
+        }
+    }
+
+    private void evictLeastUsed() {
+        Suggestion evicted = byUsage.pollFirst();
+        if (evicted == null) {
+            return;
+        }
+        suggestions.remove(evicted.key);
+        evicted.itemIds.forEach(keysByItem::remove);
+        log.debug("Достигнут лимит словаря автодополнения ({}), вытеснено название {}", maxEntries, evicted.key);
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<String> result = new ArrayList<>(limit);
+        if (key.isEmpty()) {
+            return result;
+        }
+
+        for (Suggestion suggestion : suggestions.subMap(key, true, key + Character.MAX_VALUE, false).values()) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(suggestion.displayName);
+        }
+        return result;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase();
+    }
+
+    private static class Suggestion {
+        private final String key;
+        private final String displayName;
+        private final Set<Integer> itemIds = new HashSet<>();
+
+        Suggestion(String key, String displayName) {
+            this.key = key;
+            this.displayName = displayName;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.item.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.analysis.TextAnalyzer;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Кэш результатов поиска вещей. Ключ — запрос в нижнем регистре без пробелов по краям и страница, вес записи — число вещей в ней.
+ * При изменении вещи удаляются только записи, под запрос которых подходит старый или новый текст вещи.
+ */
+@Component
+public class ItemSearchCache {
+
+    private final Cache<Key, List<ItemDto>> cache;
+    private final TextAnalyzer textAnalyzer;
+    /**
+     * Номер сброса кэша: загрузка, во время которой прошел сброс, не оставляет результат в кэше.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public ItemSearchCache(@Value("${shareit.search.cache.max-weight:100000}") long maxWeight,
+                           @Value("${shareit.search.cache.ttl:10m}") Duration ttl,
+                           MeterRegistry meterRegistry,
+                           TextAnalyzer textAnalyzer) {
+        this.textAnalyzer = textAnalyzer;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, List<ItemDto> items) -> items.size() + 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "itemSearch");
+    }
+
+    /**
+     * Возвращает страницу результатов из кэша или загружает ее. Ключ — запрос без пробелов по краям
+     * в нижнем регистре; этот же текст передается загрузчику, чтобы запросы с одним ключом
+     * выполнялись одинаково.
+     */
+    public List<ItemDto> get(String text, Pageable page, Function<String, Collection<ItemDto>> loader) {
+        String query = text.trim().toLowerCase();
+        Key key = new Key(query, page.getOffset(), page.getPageSize(),
+                textAnalyzer.tokenize(query), textAnalyzer.analyze(query));
+        long loadGeneration = generation.get();
+        List<ItemDto> items = cache.get(key, k -> List.copyOf(loader.apply(query)));
+        if (generation.get() != loadGeneration) {
+            // сброс мог пройти во время загрузки и не увидеть еще не сохраненную запись; результат мог быть
+            // прочитан до фиксации изменения, поэтому не остается в кэше. Сброс после этой проверки
+            // уже видит запись и удалит ее сам
+            cache.asMap().remove(key, items);
+        }
+        return items;
+    }
+
+    public void invalidate(String... itemTexts) {
+        generation.incrementAndGet();
+        for (String itemText : itemTexts) {
+            if (itemText == null) {
+                continue;
+            }
+            String text = itemText.toLowerCase();
+            Set<String> itemTerms = textAnalyzer.analyze(itemText);
+            cache.asMap().keySet().removeIf(key -> key.matches(text, itemTerms));
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static final class Key {
+        private final String query;
+        private final long offset;
+        private final int size;
+        @EqualsAndHashCode.Exclude
+        private final Set<String> words;
+        @EqualsAndHashCode.Exclude
+        private final Set<String> terms;
+
+        /**
+         * Может ли вещь с таким текстом попасть в результат запроса: запрос или его слово входит в текст
+         * (LIKE, полнотекстовый поиск) или основа слова запроса является началом основы слова вещи (индекс).
+         */
+        boolean matches(String itemText, Set<String> itemTerms) {
+            if (itemText.contains(query)) {
+                return true;
+            }
+            for (String word : words) {
+                if (itemText.contains(word)) {
+                    return true;
+                }
+            }
+            for (String term : terms) {
+                for (String itemTerm : itemTerms) {
+                    if (itemTerm.startsWith(term)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.analysis.TextAnalyzer;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс вещей: основа слова из названия и описания -> ID вещей, в которых оно встречается.
+ * Основы хранятся в отсортированном виде, поэтому поиск по началу слова ("дрел" -> "дрель")
+ * сводится к выборке диапазона ключей. Доступность вещей хранится отдельной битовой картой по ID,
+ * так что недоступные вещи отсекаются до загрузки из БД.
+ */
+@Component
+@Slf4j
+public class ItemSearchIndex {
+
+    private final TextAnalyzer textAnalyzer;
+    private final ConcurrentNavigableMap<String, TreeSet<Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Set<String>> tokensByItem = new ConcurrentHashMap<>();
+    private final BitSet available = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public ItemSearchIndex(TextAnalyzer textAnalyzer) {
+        this.textAnalyzer = textAnalyzer;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+        log.info("Поисковый индекс вещей построен, проиндексировано вещей: {}", tokensByItem.size());
+    }
+
+    public List<Integer> itemIds() {
+        return new ArrayList<>(tokensByItem.keySet());
+    }
+
+    public void index(Item item) {
+        Set<String> newTokens = textAnalyzer.analyze(ItemSearchService.searchableText(item));
+
+        lock.writeLock().lock();
+        try {
+            Set<String> oldTokens = tokensByItem.put(item.getId(), newTokens);
+            if (oldTokens != null) {
+                for (String token : oldTokens) {
+                    if (!newTokens.contains(token)) {
+                        removePosting(token, item.getId());
+                    }
+                }
+            }
+            for (String token : newTokens) {
+                postings.computeIfAbsent(token, t -> new TreeSet<>()).add(item.getId());
+            }
+            available.set(item.getId(), Boolean.TRUE.equals(item.getAvailable()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer itemId) {
+        lock.writeLock().lock();
+        try {
+            Set<String> oldTokens = tokensByItem.remove(itemId);
+            if (oldTokens != null) {
+                for (String token : oldTokens) {
+                    removePosting(token, itemId);
+                }
+            }
+            available.clear(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает страницу ID доступных вещей по возрастанию ID, у которых каждое слово запроса является началом
+     * какого-либо слова из названия или описания. Кандидаты перебираются по возрастанию ID из списков самого
+     * редкого слова запроса, остальные слова проверяются по словам самой вещи. Перебор заканчивается, как только
+     * набрана страница, поэтому память на запрос не зависит от числа подходящих вещей.
+     */
+    public List<Integer> search(String text, long offset, int limit) {
+        Set<String> queryTokens = textAnalyzer.analyze(text);
+        List<Integer> page = new ArrayList<>();
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return page;
+        }
+
+        lock.readLock().lock();
+        try {
+            String rarest = null;
+            long rarestCount = Long.MAX_VALUE;
+            for (String token : queryTokens) {
+                long count = 0;
+                for (Set<Integer> ids : postingsByPrefix(token).values()) {
+                    count += ids.size();
+                }
+                if (count == 0) {
+                    return page;
+                }
+                if (count < rarestCount) {
+                    rarest = token;
+                    rarestCount = count;
+                }
+            }
+
+            long skipped = 0;
+            Iterator<Integer> candidates = new MergingIterator(postingsByPrefix(rarest).values());
+            while (candidates.hasNext() && page.size() < limit) {
+                Integer id = candidates.next();
+                if (!available.get(id) || !matchesAll(id, queryTokens)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    page.add(id);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return page;
+    }
+
+    private NavigableMap<String, TreeSet<Integer>> postingsByPrefix(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private boolean matchesAll(Integer itemId, Set<String> queryTokens) {
+        Set<String> itemTokens = tokensByItem.get(itemId);
+        for (String queryToken : queryTokens) {
+            boolean found = false;
+            for (String itemToken : itemTokens) {
+                if (itemToken.startsWith(queryToken)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removePosting(String token, Integer itemId) {
+        Set<Integer> ids = postings.get(token);
+        if (ids != null) {
+            ids.remove(itemId);
+            if (ids.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    /**
+     * Объединение отсортированных списков ID по возрастанию без повторов; в памяти только по одному
+     * итератору на список.
+     */
+    private static final class MergingIterator implements Iterator<Integer> {
+        private final PriorityQueue<PeekingIterator> queue = new PriorityQueue<>();
+        private Integer next;
+
+        MergingIterator(Collection<TreeSet<Integer>> lists) {
+            for (TreeSet<Integer> ids : lists) {
+                if (!ids.isEmpty()) {
+                    queue.add(new PeekingIterator(ids.iterator()));
+                }
+            }
+            advance(null);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Integer next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Integer current = next;
+            advance(current);
+            return current;
+        }
+
+        private void advance(Integer previous) {
+            next = null;
+            while (!queue.isEmpty()) {
+                PeekingIterator head = queue.poll();
+                Integer id = head.current;
+                if (head.moveNext()) {
+                    queue.add(head);
+                }
+                // одна вещь встречается в списках нескольких слов с одним началом
+                if (!id.equals(previous)) {
+                    next = id;
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class PeekingIterator implements Comparable<PeekingIterator> {
+        private final Iterator<Integer> iterator;
+        private Integer current;
+
+        PeekingIterator(Iterator<Integer> iterator) {
+            this.iterator = iterator;
+            this.current = iterator.next();
+        }
+
+        boolean moveNext() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            current = iterator.next();
+            return true;
+        }
+
+        @Override
+        public int compareTo(PeekingIterator other) {
+            return current.compareTo(other.current);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.cache.EntityChangeEvent;
+import ru.practicum.shareit.cache.EntityType;
+import ru.practicum.shareit.cache.LocalCachesResyncEvent;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.analysis.TextAnalyzer;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class ItemSearchService {
+
+    private static final int INDEX_BATCH_SIZE = 1000;
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemNameSuggester itemNameSuggester;
+    private final ItemSearchCache itemSearchCache;
+    private final TextAnalyzer textAnalyzer;
+    private final DataSource dataSource;
+    private final TransactionTemplate primaryReadTemplate;
+    private SearchMode mode;
+    /**
+     * ID вещей, измененных во время построения индекса, или null вне построения. Построение читает вещи
+     * пакетами и может записать в индекс строку, прочитанную до изменения, поверх более новой;
+     * такие вещи после загрузки перечитываются.
+     */
+    private Set<Integer> changedDuringBuild;
+    private final Object buildLock = new Object();
+
+    public ItemSearchService(ItemRepository itemRepository,
+                             ItemSearchIndex itemSearchIndex,
+                             ItemNameSuggester itemNameSuggester,
+                             ItemSearchCache itemSearchCache,
+                             TextAnalyzer textAnalyzer,
+                             DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${shareit.search.mode:INDEX}") SearchMode mode) {
+        this.itemRepository = itemRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemNameSuggester = itemNameSuggester;
+        this.itemSearchCache = itemSearchCache;
+        this.textAnalyzer = textAnalyzer;
+        this.dataSource = dataSource;
+        // транзакция не readOnly, поэтому при настроенной реплике чтение идет с основной БД
+        this.primaryReadTemplate = new TransactionTemplate(transactionManager);
+        this.mode = mode;
+    }
+
+    @PostConstruct
+    void checkMode() {
+        // полнотекстовый и триграммный поиск есть только в PostgreSQL, на остальных БД (H2 в тестах) используется LIKE
+        if ((mode == SearchMode.FTS || mode == SearchMode.TRIGRAM) && !isPostgres()) {
+            log.warn("Режим поиска {} недоступен для текущей БД, используется поиск через LIKE", mode);
+            mode = SearchMode.LIKE;
+        }
+        log.info("Режим поиска вещей: {}", mode);
+    }
+
+    public SearchMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Возвращает доступные для бронирования вещи, подходящие под запрос, в пределах страницы.
+     * Запросы выбирают только нужные столбцы сразу в DTO, сущности вещей не загружаются.
+     */
+    public List<ItemDto> search(String text, Pageable page) {
+        return itemSearchCache.get(text, page, query -> searchItems(query, page));
+    }
+
+    private List<ItemDto> searchItems(String text, Pageable page) {
+        switch (mode) {
+            case FTS:
+                return searchFullText(text, page);
+            case TRIGRAM:
+                return ItemMapper.viewsListToDto(itemRepository
+                        .findBySimilarity(text, page.getPageSize(), page.getOffset()));
+            case INDEX:
+                if (itemSearchIndex.isReady()) {
+                    return searchIndex(text, page);
+                }
+                // пока индекс не построен, поиск выполняется запросом к БД
+                return itemRepository.findBySearchKey(text, page);
+            case LIKE:
+                return itemRepository.findBySearchKey(text, page);
+            default:
+                throw new IllegalStateException("Неизвестный режим поиска " + mode);
+        }
+    }
+
+    /**
+     * Подсказки названий доступных вещей по началу названия. Пока словарь не построен, подсказок нет.
+     */
+    public List<String> suggest(String prefix, int size) {
+        return itemNameSuggester.suggest(prefix, Math.max(1, Math.min(size, MAX_SUGGESTIONS)));
+    }
+
+    /**
+     * Обновляет индексы после сохранения вещи и сбрасывает затронутые результаты поиска.
+     *
+     * @param previousText название и описание вещи до изменения или null для новой вещи
+     */
+    public void onItemSaved(Item item, String previousText) {
+        afterCommit(() -> {
+            recordChanged(List.of(item.getId()));
+            if (mode == SearchMode.INDEX) {
+                itemSearchIndex.index(item);
+            }
+            itemNameSuggester.update(item);
+
+            if (mode == SearchMode.TRIGRAM) {
+                // нечеткий поиск находит вещи и без вхождения слов запроса, поэтому точечная очистка невозможна
+                itemSearchCache.invalidateAll();
+            } else {
+                itemSearchCache.invalidate(previousText, searchableText(item));
+            }
+        });
+    }
+
+    /**
+     * Индексирует вещи, созданные одним пакетом. Точечная очистка кэша для каждой вещи обошлась бы
+     * дороже, поэтому кэш результатов очищается целиком.
+     */
+    public void onItemsCreated(List<Item> items) {
+        afterCommit(() -> {
+            recordChanged(items.stream().map(Item::getId).collect(Collectors.toList()));
+            for (Item item : items) {
+                if (mode == SearchMode.INDEX) {
+                    itemSearchIndex.index(item);
+                }
+                itemNameSuggester.update(item);
+            }
+            itemSearchCache.invalidateAll();
+        });
+    }
+
+    /**
+     * Обновляет индексы по изменению вещей на другом узле. Прежний текст вещей здесь неизвестен,
+     * поэтому кэш результатов очищается целиком. Сообщение приходит сразу после фиксации на основной БД,
+     * а реплика может еще отставать, поэтому вещи читаются с основной БД.
+     */
+    @EventListener
+    public void onEntityChanged(EntityChangeEvent event) {
+        if (event.getType() != EntityType.ITEM) {
+            return;
+        }
+        recordChanged(event.getIds());
+        reindex(event.getIds());
+        itemSearchCache.invalidateAll();
+    }
+
+    public static String searchableText(Item item) {
+        return item.getName() + " " + item.getDescription();
+    }
+
+    /**
+     * Перестраивает индекс и словарь по БД после возможной потери сообщений об изменениях вещей.
+     */
+    @EventListener
+    public void onResync(LocalCachesResyncEvent event) {
+        buildIndex();
+        itemSearchCache.invalidateAll();
+    }
+
+    /**
+     * Загружает все вещи в индекс и словарь. При повторном построении вещи, которых больше нет в БД,
+     * удаляются из них.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void buildIndex() {
+        boolean useIndex = mode == SearchMode.INDEX;
+        log.info("Построение поискового индекса и словаря автодополнения вещей");
+        synchronized (buildLock) {
+            changedDuringBuild = new HashSet<>();
+        }
+
+        BitSet loaded = new BitSet();
+        Integer lastId = 0;
+        List<Item> batch;
+        do {
+            Integer afterId = lastId;
+            // с основной БД: изменения, еще не дошедшие до реплики, не попали бы и в перечитывание после загрузки
+            batch = primaryReadTemplate.execute(status -> itemRepository.findAllByIdGreaterThanOrderById(afterId,
+                    PageRequest.of(0, INDEX_BATCH_SIZE)));
+            for (Item item : batch) {
+                if (useIndex) {
+                    itemSearchIndex.index(item);
+                }
+                itemNameSuggester.update(item);
+                loaded.set(item.getId());
+                lastId = item.getId();
+            }
+        } while (batch.size() == INDEX_BATCH_SIZE);
+
+        // вещи, измененные во время загрузки, здесь тоже могут быть удалены, но их вернет перечитывание ниже
+        for (Integer itemId : itemSearchIndex.itemIds()) {
+            if (!loaded.get(itemId)) {
+                itemSearchIndex.remove(itemId);
+            }
+        }
+        for (Integer itemId : itemNameSuggester.itemIds()) {
+            if (!loaded.get(itemId)) {
+                itemNameSuggester.remove(itemId);
+            }
+        }
+
+        reindexChangedDuringBuild();
+
+        if (useIndex) {
+            itemSearchIndex.markReady();
+        }
+        log.info("Словарь автодополнения построен, названий: {}", itemNameSuggester.size());
+    }
+
+    /**
+     * Перечитывает вещи, измененные во время построения, пока за время очередного перечитывания
+     * не перестанут появляться новые изменения.
+     */
+    private void reindexChangedDuringBuild() {
+        while (true) {
+            Set<Integer> changed;
+            synchronized (buildLock) {
+                if (changedDuringBuild.isEmpty()) {
+                    changedDuringBuild = null;
+                    return;
+                }
+                changed = changedDuringBuild;
+                changedDuringBuild = new HashSet<>();
+            }
+            log.info("Переиндексация вещей, измененных во время построения индекса: {}", changed.size());
+            reindex(changed);
+        }
+    }
+
+    /**
+     * Запоминает изменение до обновления индекса: если построение еще идет, вещь будет перечитана после него,
+     * а если уже завершилось, пакетная загрузка больше не перезапишет индекс.
+     */
+    private void recordChanged(Collection<Integer> itemIds) {
+        synchronized (buildLock) {
+            if (changedDuringBuild != null) {
+                changedDuringBuild.addAll(itemIds);
+            }
+        }
+    }
+
+    /**
+     * Перечитывает вещи с основной БД и обновляет индексы; отсутствующие в БД вещи удаляются из индексов.
+     */
+    private void reindex(Collection<Integer> itemIds) {
+        Set<Integer> missing = new HashSet<>(itemIds);
+        List<Item> items = primaryReadTemplate.execute(status -> itemRepository.findAllById(itemIds));
+        for (Item item : items) {
+            if (mode == SearchMode.INDEX) {
+                itemSearchIndex.index(item);
+            }
+            itemNameSuggester.update(item);
+            missing.remove(item.getId());
+        }
+        for (Integer itemId : missing) {
+            itemSearchIndex.remove(itemId);
+            itemNameSuggester.remove(itemId);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        // индексы и кэш обновляются только после фиксации транзакции, чтобы не отражать откатившиеся изменения
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private List<ItemDto> searchIndex(String text, Pageable page) {
+        List<Integer> itemIds = itemSearchIndex.search(text, page.getOffset(), page.getPageSize());
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return itemRepository.findAvailableDtosByIdIn(itemIds);
+    }
+
+    private List<ItemDto> searchFullText(String text, Pageable page) {
+        // каждое слово запроса ищется как префикс лексемы: "дрел" -> 'дрел':*
+        String query = textAnalyzer.tokenize(text).stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return ItemMapper.viewsListToDto(
+                itemRepository.findByFullTextQuery(query, page.getPageSize(), page.getOffset()));
+    }
+
+    private boolean isPostgres() {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            log.warn("Не удалось определить тип БД: {}", e.getMessage());
+            return false;
+        }
+    }
+}
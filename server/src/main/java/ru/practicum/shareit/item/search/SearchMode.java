@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Способ поиска вещей. Режимы различаются не только скоростью, но и тем, какие вещи считаются подходящими.
+ */
+public enum SearchMode {
+    /**
+     * Вхождение запроса в любое место названия или описания: "рель" находит "дрель".
+     */
+    LIKE,
+    /**
+     * Индекс в памяти: каждое слово запроса должно быть началом слова вещи после приведения к основе,
+     * "дрел" и "дрелью" находят "дрель", а "рель" — нет. Пока индекс строится, поиск идет как в LIKE.
+     */
+    INDEX,
+    /**
+     * Полнотекстовый поиск PostgreSQL по началу лексем; совпадения внутри слова, как и в INDEX, не находятся.
+     */
+    FTS,
+    /**
+     * Нечеткий поиск pg_trgm по сходству триграмм, допускает опечатки.
+     */
+    TRIGRAM
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.search.analysis;
+
+public class LowerCaseFilter implements TokenFilter {
+
+    @Override
+    public int apply(char[] buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            buffer[i] = Character.toLowerCase(buffer[i]);
+        }
+        return length;
+    }
+}
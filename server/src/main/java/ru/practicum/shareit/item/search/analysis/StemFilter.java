@@ -0,0 +1,83 @@
+package ru.practicum.shareit.item.search.analysis;
+
+/**
+ * Облегченный стеммер для русского и английского языков: отсекает только окончания,
+ * поэтому основа всегда является началом исходного слова и пригодна для поиска по префиксу.
+ */
+public class StemFilter implements TokenFilter {
+
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private static final String[][] RUSSIAN_ENDINGS = new String[][]{
+            new String[]{"иями", "оями"},
+            new String[]{"ами", "ями", "ого", "его", "ому", "ему", "ыми", "ими", "иях", "иям", "ием", "ией"},
+            new String[]{"ов", "ев", "ая", "яя", "ое", "ее", "ые", "ие", "ый", "ий", "ой", "ей", "ом", "ем", "ам",
+                    "ям", "ах", "ях", "ую", "юю", "ью", "ия", "ию", "ии", "ых", "их"},
+            new String[]{"а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й"}
+    };
+
+    @Override
+    public int apply(char[] buffer, int length) {
+        if (length <= MIN_STEM_LENGTH) {
+            return length;
+        }
+        char last = buffer[length - 1];
+        if (last >= 'а' && last <= 'я' || last == 'ё') {
+            return stemRussian(buffer, length);
+        }
+        if (last >= 'a' && last <= 'z') {
+            return stemEnglish(buffer, length);
+        }
+        return length;
+    }
+
+    private int stemRussian(char[] buffer, int length) {
+        for (String[] endings : RUSSIAN_ENDINGS) {
+            for (String ending : endings) {
+                if (length - ending.length() >= MIN_STEM_LENGTH && endsWith(buffer, length, ending)) {
+                    length -= ending.length();
+                    // "дрелью" -> "дрел", как и "дрель"
+                    if (length > MIN_STEM_LENGTH && buffer[length - 1] == 'ь') {
+                        length--;
+                    }
+                    return length;
+                }
+            }
+        }
+        return length;
+    }
+
+    private int stemEnglish(char[] buffer, int length) {
+        // "batteries" и "battery" -> "batter"
+        if (length > 4 && endsWith(buffer, length, "ies")) {
+            return length - 3;
+        }
+        if (endsWith(buffer, length, "y") && !isVowel(buffer[length - 2])) {
+            return length - 1;
+        }
+        if (endsWith(buffer, length, "es") && !endsWith(buffer, length, "ees") && !endsWith(buffer, length, "oes")) {
+            return length - 1;
+        }
+        if (endsWith(buffer, length, "s") && !endsWith(buffer, length, "ss") && !endsWith(buffer, length, "us")) {
+            return length - 1;
+        }
+        return length;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+
+    private static boolean endsWith(char[] buffer, int length, String suffix) {
+        int start = length - suffix.length();
+        if (start < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (buffer[start + i] != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
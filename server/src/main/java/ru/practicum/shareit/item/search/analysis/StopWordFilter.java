@@ -0,0 +1,55 @@
+package ru.practicum.shareit.item.search.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class StopWordFilter implements TokenFilter {
+
+    private static final String[] RUSSIAN = {
+        "а", "без", "бы", "в", "во", "вот", "все", "вы", "да", "для", "до", "его", "ее", "если", "же",
+        "за", "и", "из", "или", "к", "как", "ко", "ли", "на", "над", "не", "нет", "но", "о", "об", "от",
+        "по", "под", "при", "с", "со", "так", "то", "только", "у", "уже", "что", "это", "этот"
+    };
+
+    private static final String[] ENGLISH = {
+        "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+        "no", "not", "of", "on", "or", "such", "that", "the", "their", "then", "there", "these", "they",
+        "this", "to", "was", "will", "with"
+    };
+
+    /**
+     * Стоп-слова, сгруппированные по длине: проверка слова сравнивает его с буфером на месте, без создания
+     * строк и оберток.
+     */
+    private final char[][][] stopWordsByLength;
+
+    public StopWordFilter() {
+        List<List<char[]>> byLength = new ArrayList<>();
+        for (String[] words : List.of(RUSSIAN, ENGLISH)) {
+            for (String word : words) {
+                while (byLength.size() <= word.length()) {
+                    byLength.add(new ArrayList<>());
+                }
+                byLength.get(word.length()).add(word.toCharArray());
+            }
+        }
+        stopWordsByLength = new char[byLength.size()][][];
+        for (int i = 0; i < byLength.size(); i++) {
+            stopWordsByLength[i] = byLength.get(i).toArray(new char[0][]);
+        }
+    }
+
+    @Override
+    public int apply(char[] buffer, int length) {
+        if (length >= stopWordsByLength.length) {
+            return length;
+        }
+        for (char[] stopWord : stopWordsByLength[length]) {
+            if (Arrays.equals(buffer, 0, length, stopWord, 0, length)) {
+                return 0;
+            }
+        }
+        return length;
+    }
+}
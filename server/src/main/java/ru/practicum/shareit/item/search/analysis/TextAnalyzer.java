@@ -0,0 +1,77 @@
+package ru.practicum.shareit.item.search.analysis;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Разбивает текст на слова и пропускает каждое через цепочку фильтров. Используется одинаково
+ * при индексации вещей и при разборе поискового запроса, поэтому их слова сопоставимы.
+ */
+@Component
+public class TextAnalyzer {
+
+    private static final int MAX_WORD_LENGTH = 64;
+    private static final List<TokenFilter> LOWER_CASE_ONLY = List.of(new LowerCaseFilter());
+    /**
+     * Буфер текущего слова; фильтры меняют слово в нем на месте, строка создается только для итогового слова.
+     */
+    private static final ThreadLocal<char[]> WORD_BUFFER = ThreadLocal.withInitial(() -> new char[MAX_WORD_LENGTH]);
+
+    private final List<TokenFilter> filters;
+
+    public TextAnalyzer() {
+        this(List.of(new LowerCaseFilter(), new StopWordFilter(), new StemFilter()));
+    }
+
+    public TextAnalyzer(List<TokenFilter> filters) {
+        this.filters = filters;
+    }
+
+    /**
+     * Слова текста после всех фильтров: в нижнем регистре, без стоп-слов, приведенные к основе.
+     */
+    public Set<String> analyze(String text) {
+        return process(text, filters);
+    }
+
+    /**
+     * Слова текста в нижнем регистре без остальной обработки.
+     */
+    public Set<String> tokenize(String text) {
+        return process(text, LOWER_CASE_ONLY);
+    }
+
+    private Set<String> process(String text, List<TokenFilter> tokenFilters) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+
+        char[] buffer = WORD_BUFFER.get();
+        int length = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                // слишком длинные слова обрезаются, для поиска по префиксу этого достаточно
+                if (length < MAX_WORD_LENGTH) {
+                    buffer[length++] = c;
+                }
+            } else if (length > 0) {
+                for (TokenFilter filter : tokenFilters) {
+                    length = filter.apply(buffer, length);
+                    if (length == 0) {
+                        break;
+                    }
+                }
+                if (length > 0) {
+                    terms.add(new String(buffer, 0, length));
+                }
+                length = 0;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.search.analysis;
+
+/**
+ * Шаг обработки слова в {@link TextAnalyzer}. Слово изменяется на месте в буфере,
+ * чтобы не создавать промежуточных строк для каждого шага.
+ */
+public interface TokenFilter {
+
+    /**
+     * Обрабатывает слово из первых length символов буфера.
+     *
+     * @return новая длина слова или 0, если слово нужно отбросить
+     */
+    int apply(char[] buffer, int length);
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Импорт вещей из NDJSON. Тело приходит от шлюза, который уже разобрал и проверил строки
+ * (ItemClient.importItems), поэтому здесь вещи только читаются по одной, сохраняются пакетами
+ * по отдельной транзакции на пакет, а результаты пакета сразу пишутся в ответ в виде NDJSON
+ * в порядке вещей. В памяти одновременно находится не больше одного пакета.
+ */
+@Component
+@Slf4j
+public class ItemBulkImporter {
+
+    private final ItemService itemService;
+    private final UserExistenceCache userExistenceCache;
+    private final ObjectReader itemReader;
+    private final ObjectWriter resultWriter;
+    private final int batchSize;
+
+    public ItemBulkImporter(ItemService itemService,
+                            UserExistenceCache userExistenceCache,
+                            ObjectMapper objectMapper,
+                            @Value("${shareit.items.bulk.batch-size:500}") int batchSize) {
+        this.itemService = itemService;
+        this.userExistenceCache = userExistenceCache;
+        this.itemReader = objectMapper.readerFor(ItemDto.class);
+        this.resultWriter = objectMapper.writerFor(ItemImportResult.class);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Проверяет владельца до начала импорта, пока ответ еще можно вернуть с кодом ошибки.
+     */
+    public void checkOwner(Integer userId) {
+        if (!userExistenceCache.exists(userId)) {
+            throw new EntityNotFoundException("Пользователь с ID " + userId + " не найден");
+        }
+    }
+
+    public void importItems(Integer userId, InputStream in, OutputStream out) throws IOException {
+        List<ItemDto> batch = new ArrayList<>(batchSize);
+        int count = 0;
+        try (MappingIterator<ItemDto> items = itemReader.readValues(in)) {
+            while (items.hasNextValue()) {
+                batch.add(items.nextValue());
+                count++;
+                if (batch.size() == batchSize) {
+                    flush(userId, batch, out);
+                }
+            }
+        }
+        flush(userId, batch, out);
+        log.info("Импорт вещей пользователя с ID {} завершен, вещей: {}", userId, count);
+    }
+
+    private void flush(Integer userId, List<ItemDto> batch, OutputStream out) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (ItemImportResult result : save(userId, batch)) {
+            out.write(resultWriter.writeValueAsBytes(result));
+            out.write('\n');
+        }
+        out.flush();
+        batch.clear();
+    }
+
+    private List<ItemImportResult> save(Integer userId, List<ItemDto> batch) {
+        try {
+            return itemService.createItems(batch, userId);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось сохранить пакет вещей пользователя с ID {}", userId, e);
+            List<ItemImportResult> failed = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                failed.add(ItemImportResult.failed("Не удалось сохранить вещь: " + e.getMessage()));
+            }
+            return failed;
+        }
+    }
+}
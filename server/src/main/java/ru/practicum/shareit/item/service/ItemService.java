@@ -3,20 +3,30 @@ package ru.practicum.shareit.item.service;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface ItemService {
     ItemDto createItem(ItemDto itemDto, Integer userId);
 
+    /**
+     * Создает вещи одной транзакцией и возвращает результаты в порядке переданных вещей.
+     * Вещь со ссылкой на несуществующий запрос не создается, остальные создаются.
+     */
+    List<ItemImportResult> createItems(List<ItemDto> itemDtos, Integer userId);
+
     ItemDto updateItem(ItemDto itemDto, Integer itemId, Integer userId);
 
     ItemResponseDto getItemById(Integer itemId, Integer userId);
 
     Collection<ItemResponseDto> getUserItems(Integer userId, Integer from, Integer size);
 
-    Collection<ItemDto> findItems(String searchKey);
+    Collection<ItemDto> findItems(String searchKey, Integer from, Integer size);
+
+    List<String> suggestItemNames(String prefix, Integer size);
 
     CommentResponseDto postComment(CommentDto commentDto, Integer userId, Integer itemId);
 }
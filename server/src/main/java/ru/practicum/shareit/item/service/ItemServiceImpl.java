@@ -7,8 +7,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.cache.EntityChangeNotifier;
 import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingView;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.AvailabilityException;
@@ -18,19 +22,23 @@ import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.model.ItemWithBookingsAndComments;
+import ru.practicum.shareit.item.search.ItemSearchService;
+import ru.practicum.shareit.item.search.OffsetPageRequest;
 import ru.practicum.shareit.request.dao.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,18 +46,26 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ItemServiceImpl implements ItemService {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchService itemSearchService;
+    private final UserExistenceCache userExistenceCache;
+    private final EntityChangeNotifier entityChangeNotifier;
 
     @Transactional
     @Override
     public ItemDto createItem(ItemDto itemDto, Integer userId) {
         Item item = ItemMapper.toItem(itemDto);
-        item.setOwner(userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Пользователь с ID " + userId + " не найден")));
+        if (!userExistenceCache.exists(userId)) {
+            throw new EntityNotFoundException("Пользователь с ID " + userId + " не найден");
+        }
+        // для ответа нужен только ID владельца, поэтому он не загружается
+        item.setOwner(userRepository.getReferenceById(userId));
         if (itemDto.getRequestId() != null) {
             Integer requestId = itemDto.getRequestId();
             ItemRequest itemRequest = itemRequestRepository.findById(requestId)
@@ -57,8 +73,57 @@ public class ItemServiceImpl implements ItemService {
             item.setRequest(itemRequest);
         }
 
+        Item savedItem = itemRepository.save(item);
+        itemSearchService.onItemSaved(savedItem, null);
+        entityChangeNotifier.itemChanged(savedItem.getId());
+
         log.info("Добавлена вещь {} пользователем с ID {}", item.getName(), userId);
-        return ItemMapper.itemToDto(itemRepository.save(item));
+        return ItemMapper.itemToDto(savedItem);
+    }
+
+    @Transactional
+    @Override
+    public List<ItemImportResult> createItems(List<ItemDto> itemDtos, Integer userId) {
+        if (!userExistenceCache.exists(userId)) {
+            throw new EntityNotFoundException("Пользователь с ID " + userId + " не найден");
+        }
+        User owner = userRepository.getReferenceById(userId);
+
+        // все запросы пакета загружаются одним запросом
+        Set<Integer> requestIds = itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, ItemRequest> requests = itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        List<Item> items = new ArrayList<>(itemDtos.size());
+        List<ItemImportResult> results = new ArrayList<>(itemDtos.size());
+        for (ItemDto itemDto : itemDtos) {
+            Integer requestId = itemDto.getRequestId();
+            if (requestId != null && !requests.containsKey(requestId)) {
+                results.add(ItemImportResult.failed("Запрос с ID " + requestId + " не найден"));
+                continue;
+            }
+            Item item = ItemMapper.toItem(itemDto);
+            item.setOwner(owner);
+            item.setRequest(requestId == null ? null : requests.get(requestId));
+            items.add(item);
+            results.add(null);
+        }
+
+        // ID выдаются из последовательности блоками, поэтому вставки уходят пакетами JDBC
+        Iterator<Item> saved = itemRepository.saveAll(items).iterator();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, ItemImportResult.created(saved.next().getId()));
+            }
+        }
+        itemSearchService.onItemsCreated(items);
+        entityChangeNotifier.itemsChanged(items.stream().map(Item::getId).collect(Collectors.toList()));
+
+        log.info("Пользователем с ID {} добавлено вещей: {}", userId, items.size());
+        return results;
     }
 
     @Transactional
@@ -69,6 +134,7 @@ public class ItemServiceImpl implements ItemService {
         if (!existingItem.getOwner().getId().equals(userId)) {
             throw new AccessDeniedException("Пользователь может редактировать только свою вещь");
         }
+        String previousText = ItemSearchService.searchableText(existingItem);
 
         String name = itemDto.getName();
         if (name != null && !name.isBlank()) {
@@ -86,48 +152,43 @@ public class ItemServiceImpl implements ItemService {
         }
 
         itemRepository.save(existingItem);
+        itemSearchService.onItemSaved(existingItem, previousText);
+        entityChangeNotifier.itemChanged(itemId);
         log.info("Обновлены данные о вещи {} пользователем с ID  {}", itemDto.getName(), userId);
         return ItemMapper.itemToDto(existingItem);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public ItemResponseDto getItemById(Integer itemId, Integer userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Пользователь с ID " + userId + " не найден"));
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new EntityNotFoundException("Вещь с ID " + itemId + " не найдена"));
-
-        ItemResponseDto itemResponseDto;
-        LocalDateTime now = LocalDateTime.now();
-
-        Booking lastBooking = null;
-        Booking nextBooking = null;
-
-        if (item.getOwner().getId().equals(userId)) {
-            lastBooking = bookingRepository
-                    .findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(itemId, Status.APPROVED, now);
-            nextBooking = bookingRepository
-                    .findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(itemId, Status.APPROVED, now);
+        if (!userExistenceCache.exists(userId)) {
+            throw new EntityNotFoundException("Пользователь с ID " + userId + " не найден");
         }
+        ItemResponseDto itemResponseDto = itemRepository.findResponseById(itemId)
+                .orElseThrow(() -> new EntityNotFoundException("Вещь с ID " + itemId + " не найдена"));
 
-        List<Comment> comments = commentRepository.findByItemId(itemId);
-        if (comments.isEmpty()) {
-            itemResponseDto = ItemMapper.itemToItemResponseDto(item, lastBooking, nextBooking, Collections.emptyList());
-
-        } else {
-            itemResponseDto = ItemMapper.itemToItemResponseDto(item, lastBooking, nextBooking, comments);
+        if (itemResponseDto.getOwner().getId().equals(userId)) {
+            for (ItemBookingView booking : bookingRepository
+                    .findLastAndNextApprovedBookings(List.of(itemId), LocalDateTime.now())) {
+                if (booking.getNext()) {
+                    itemResponseDto.setNextBooking(BookingMapper.toBookingShortDto(booking));
+                } else {
+                    itemResponseDto.setLastBooking(BookingMapper.toBookingShortDto(booking));
+                }
+            }
         }
+        itemResponseDto.setComments(commentRepository.findResponsesByItemId(itemId));
 
         log.info("Запрос информации о вещи {} пользователем c ID {}", itemId, userId);
         return itemResponseDto;
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public Collection<ItemResponseDto> getUserItems(Integer ownerId, Integer from, Integer size) {
-        User user = userRepository.findById(ownerId)
-                .orElseThrow(() -> new EntityNotFoundException("Пользователь с ID " + ownerId + " не найден"));
+        if (!userExistenceCache.exists(ownerId)) {
+            throw new EntityNotFoundException("Пользователь с ID " + ownerId + " не найден");
+        }
 
         Pageable page = PageRequest.of((int) from / size, size);
 
@@ -135,12 +196,17 @@ public class ItemServiceImpl implements ItemService {
 
         List<Item> userItems = itemRepository.findAllByOwnerIdOrderById(ownerId, page);
 
-        List<Booking> approvedBookings = bookingRepository
-                .findApprovedBookingsFor(userItems, Sort.by(Sort.Direction.DESC, "start"));
-
-        Map<Integer, List<Booking>> approvedBookingsByItem = approvedBookings
-                .stream()
-                .collect(Collectors.groupingBy(x -> x.getItem().getId()));
+        Map<Integer, BookingShortDto> lastBookings = new HashMap<>();
+        Map<Integer, BookingShortDto> nextBookings = new HashMap<>();
+        if (!userItems.isEmpty()) {
+            List<Integer> itemIds = userItems.stream()
+                    .map(Item::getId)
+                    .collect(Collectors.toList());
+            for (ItemBookingView booking : bookingRepository.findLastAndNextApprovedBookings(itemIds, now)) {
+                Map<Integer, BookingShortDto> target = booking.getNext() ? nextBookings : lastBookings;
+                target.put(booking.getItemId(), BookingMapper.toBookingShortDto(booking));
+            }
+        }
 
         List<Comment> itemComments =
                 commentRepository.findCommentsForItemsIn(userItems, Sort.by(Sort.Direction.ASC, "id"));
@@ -148,49 +214,44 @@ public class ItemServiceImpl implements ItemService {
                 .stream()
                 .collect(Collectors.groupingBy(x -> x.getItem().getId()));
 
-        List<ItemWithBookingsAndComments> userItemsWithBookings = userItems.stream()
-                .map(item -> {
-                    return new ItemWithBookingsAndComments(
-                            item,
-                            approvedBookingsByItem.getOrDefault(item.getId(), Collections.emptyList()),
-                            comments.getOrDefault(item.getId(), Collections.emptyList())
-                    );
-                }).collect(Collectors.toList());
-
         List<ItemResponseDto> itemResponseDtoList = new ArrayList<>();
 
-        for (ItemWithBookingsAndComments itemWithBookingsAndComments : userItemsWithBookings) {
-            Item item = itemWithBookingsAndComments.getItem();
-            List<Booking> bookings = itemWithBookingsAndComments.getBookings();
-            Booking lastBooking = null;
-            Booking nextBooking = null;
-            if (!bookings.isEmpty()) {
-                lastBooking = findLastBooking(bookings, now);
-                nextBooking = findNextBooking(bookings, now);
-            }
-
+        for (Item item : userItems) {
             itemResponseDtoList.add(ItemMapper.itemToItemResponseDto(
                     item,
-                    lastBooking,
-                    nextBooking,
-                    itemWithBookingsAndComments.getComments())
+                    lastBookings.get(item.getId()),
+                    nextBookings.get(item.getId()),
+                    comments.getOrDefault(item.getId(), Collections.emptyList()))
             );
         }
 
         Collections.sort(itemResponseDtoList);
 
-        log.info("Получение информации о всех вещах пользователя {} c ID {}", user.getName(), ownerId);
+        log.info("Получение информации о всех вещах пользователя c ID {}", ownerId);
         return itemResponseDtoList;
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
-    public Collection<ItemDto> findItems(String searchKey) {
+    public Collection<ItemDto> findItems(String searchKey, Integer from, Integer size) {
         if (searchKey.isBlank()) {
             return Collections.emptyList();
         }
-        log.info("Поиск вещей по ключевому слову {}", searchKey);
-        return ItemMapper.itemsListToDto(itemRepository.findBySearchKey(searchKey));
+        log.info("Поиск вещей по ключевому слову {}, from={}, size={}", searchKey, from, size);
+
+        // размер страницы ограничен, начало остается точно from; результаты упорядочены по ID
+        int pageSize = Math.min(size, MAX_SEARCH_PAGE_SIZE);
+        Pageable page = new OffsetPageRequest(from, pageSize, Sort.by(Sort.Direction.ASC, "id"));
+
+        return itemSearchService.search(searchKey, page);
+    }
+
+    @Override
+    public List<String> suggestItemNames(String prefix, Integer size) {
+        if (prefix.isBlank()) {
+            return Collections.emptyList();
+        }
+        return itemSearchService.suggest(prefix, size);
     }
 
     @Transactional
@@ -217,42 +278,4 @@ public class ItemServiceImpl implements ItemService {
         log.info("Публикация отзыва пользователем с ID {} к вещи с ID {}", userId, itemId);
         return CommentMapper.toCommentResponseDto(commentRepository.save(comment));
     }
-
-
-    private Booking findLastBooking(List<Booking> bookings, LocalDateTime now) {
-        if (bookings != null && !bookings.isEmpty()) {
-            Booking lastBooking = null;
-            for (Booking booking : bookings) {
-                if (booking.getEnd().isBefore(now)) {
-                    if (lastBooking == null) {
-                        lastBooking = booking;
-                    } else if (lastBooking.getEnd().isAfter(booking.getEnd())) {
-                        lastBooking = booking;
-                    }
-                }
-            }
-            return lastBooking;
-        } else {
-            throw new EntityNotFoundException("У вещи нет бронирований");
-        }
-    }
-
-    private Booking findNextBooking(List<Booking> bookings, LocalDateTime now) {
-
-        if (bookings != null && !bookings.isEmpty()) {
-            Booking nextBooking = null;
-            for (Booking booking : bookings) {
-                if (booking.getStart().isAfter(now)) {
-                    if (nextBooking == null) {
-                        nextBooking = booking;
-                    } else if (booking.getStart().isBefore(nextBooking.getStart())) {
-                        nextBooking = booking;
-                    }
-                }
-            }
-            return nextBooking;
-        } else {
-            throw new EntityNotFoundException("У вещи нет бронирований");
-        }
-    }
 }
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.jcache.Expirable;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Публикует метрики регионов кэша второго уровня Hibernate с тегом cache=имя региона:
+ * стандартные метрики Caffeine (cache.gets, cache.evictions, cache.size), долю попаданий
+ * shareit.cache.hit.ratio и оценку занимаемой памяти shareit.cache.heap.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    public static final String HIT_RATIO_METRIC = "shareit.cache.hit.ratio";
+    public static final String HEAP_METRIC = "shareit.cache.heap";
+
+    /**
+     * Число записей, по которым оценивается средний размер записи региона.
+     */
+    private static final int HEAP_SAMPLE_SIZE = 100;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        RegionFactory regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache()
+                .getRegionFactory();
+        if (!(regionFactory instanceof JCacheRegionFactory)) {
+            return;
+        }
+        CacheManager cacheManager = ((JCacheRegionFactory) regionFactory).getCacheManager();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache<?, ?> cache = cacheManager.getCache(name).unwrap(Cache.class);
+            CaffeineCacheMetrics.monitor(registry, cache, name);
+            Gauge.builder(HIT_RATIO_METRIC, cache, c -> c.stats().hitRate())
+                    .description("Доля попаданий в регион кэша второго уровня")
+                    .tag("cache", name)
+                    .register(registry);
+            Gauge.builder(HEAP_METRIC, cache, SecondLevelCacheMetrics::estimateHeap)
+                    .description("Оценка памяти, занимаемой регионом кэша второго уровня")
+                    .tag("cache", name)
+                    .baseUnit("bytes")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Оценивает размер региона как число записей, умноженное на средний размер сериализованной записи
+     * по выборке. Записи Hibernate хранятся в разобранном виде, поэтому сериализованный размер близок
+     * к занимаемой памяти; точный подсчет потребовал бы обхода графа объектов.
+     */
+    static double estimateHeap(Cache<?, ?> cache) {
+        long entries = cache.estimatedSize();
+        if (entries == 0) {
+            return 0;
+        }
+        CountingOutputStream counter = new CountingOutputStream();
+        int sampled = 0;
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            for (Map.Entry<?, ?> entry : cache.asMap().entrySet()) {
+                if (sampled == HEAP_SAMPLE_SIZE) {
+                    break;
+                }
+                out.writeUnshared(entry.getKey());
+                out.writeUnshared(unwrap(entry.getValue()));
+                out.reset();
+                sampled++;
+            }
+        } catch (IOException e) {
+            return Double.NaN;
+        }
+        return sampled == 0 ? 0 : (double) counter.count / sampled * entries;
+    }
+
+    /**
+     * Caffeine JCache хранит значения в несериализуемой обертке Expirable; оценивается само значение.
+     */
+    private static Object unwrap(Object value) {
+        return value instanceof Expirable ? ((Expirable<?>) value).get() : value;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.Callable;
+
+/**
+ * Считает SQL-запросы, выполненные при обработке HTTP-запроса, и публикует их число и суммарное
+ * время JDBC в метриках shareit.sql.statements и shareit.sql.time с тегом endpoint вида
+ * ItemController.getUserItems.
+ * <p>
+ * Для асинхронных ответов (StreamingResponseBody, Callable) подсчет продолжается в потоке, где
+ * формируется тело ответа, и метрики публикуются по его завершении под тем же тегом endpoint.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String STATEMENTS_METRIC = "shareit.sql.statements";
+    public static final String TIME_METRIC = "shareit.sql.time";
+
+    private static final String ASYNC_INTERCEPTOR_KEY = SqlMetricsInterceptor.class.getName();
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // при повторной диспетчеризации асинхронного запроса статистика уже опубликована в потоке обработки
+        if (handler instanceof HandlerMethod && request.getDispatcherType() != DispatcherType.ASYNC) {
+            SqlStatementStats stats = SqlStatementStats.start();
+            WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ASYNC_INTERCEPTOR_KEY,
+                    new AsyncStatsInterceptor(stats, endpoint((HandlerMethod) handler)));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // подсчет продолжит AsyncStatsInterceptor в потоке асинхронной обработки
+        SqlStatementStats.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        SqlStatementStats stats = SqlStatementStats.current();
+        if (stats == null || !(handler instanceof HandlerMethod)) {
+            return;
+        }
+        SqlStatementStats.stop();
+        publish(endpoint((HandlerMethod) handler), stats);
+    }
+
+    public static String endpoint(HandlerMethod handler) {
+        return handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+    }
+
+    private void publish(String endpoint, SqlStatementStats stats) {
+        DistributionSummary.builder(STATEMENTS_METRIC)
+                .description("Число SQL-запросов на один HTTP-запрос")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder(TIME_METRIC)
+                .description("Суммарное время выполнения SQL-запросов на один HTTP-запрос")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(stats.getTime());
+    }
+
+    /**
+     * Переносит статистику запроса в поток асинхронной обработки и публикует ее, когда тело ответа сформировано.
+     */
+    @RequiredArgsConstructor
+    private class AsyncStatsInterceptor implements CallableProcessingInterceptor {
+
+        private final SqlStatementStats stats;
+        private final String endpoint;
+
+        @Override
+        public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+            SqlStatementStats.resume(stats);
+        }
+
+        @Override
+        public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+            SqlStatementStats.stop();
+            publish(endpoint, stats);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.metrics;
+
+import java.time.Duration;
+
+/**
+ * Число SQL-запросов и суммарное время их выполнения в JDBC, накопленные в текущем потоке
+ * с момента вызова {@link #start()}. Запросы вне такого интервала не учитываются.
+ */
+public final class SqlStatementStats {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+
+    private SqlStatementStats() {
+    }
+
+    public static SqlStatementStats start() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Продолжает подсчет в текущем потоке в уже начатую статистику, например в потоке асинхронной
+     * обработки запроса, начатого в другом потоке.
+     */
+    public static void resume(SqlStatementStats stats) {
+        CURRENT.set(stats);
+    }
+
+    /**
+     * Возвращает статистику текущего потока или null, если подсчет не запущен.
+     */
+    public static SqlStatementStats current() {
+        return CURRENT.get();
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    static void record(long elapsedNanos) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.nanos += elapsedNanos;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public Duration getTime() {
+        return Duration.ofNanos(nanos);
+    }
+}
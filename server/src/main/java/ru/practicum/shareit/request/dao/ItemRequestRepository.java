@@ -1,7 +1,9 @@
 package ru.practicum.shareit.request.dao;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
 
@@ -10,8 +12,12 @@ import java.util.List;
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Integer> {
 
+    // явный JPQL вместо производного запроса, который соединял users через left join
+    // и не использовал индекс requests (requester_id, create_date)
+    @Query("select r from ItemRequest r where r.requester.id = ?1 order by r.created desc")
     List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(Integer id);
 
+    @EntityGraph(attributePaths = "requester")
     List<ItemRequest> findAllByRequesterIdNot(Integer userId, Pageable page);
 
 }
@@ -20,6 +20,7 @@ import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -33,6 +34,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final UserRepository userRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRepository itemRepository;
+    private final UserExistenceCache userExistenceCache;
 
     @Transactional
     @Override
@@ -45,11 +47,12 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return ItemRequestMapper.toItemRequestDto(itemRequestRepository.save(itemRequest));
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public List<ItemRequestDtoWithResponses> getItemRequestsByUserId(Integer userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Пользователь с ID " + userId + " не найден"));
+        if (!userExistenceCache.exists(userId)) {
+            throw new EntityNotFoundException("Пользователь с ID " + userId + " не найден");
+        }
         List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId);
 
         if (itemRequests.isEmpty()) {
@@ -70,7 +73,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequestsWithResponses;
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public List<ItemRequestDtoWithResponses> getItemRequestsByOtherUsers(Integer userId, Integer from, Integer size) {
 
@@ -95,11 +98,12 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequestsWithResponses;
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public ItemRequestDtoWithResponses getItemRequestById(Integer requestId, Integer userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Пользователь с ID " + userId + " не найден"));
+        if (!userExistenceCache.exists(userId)) {
+            throw new EntityNotFoundException("Пользователь с ID " + userId + " не найден");
+        }
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new EntityNotFoundException("Запрос с ID " + requestId + " не найден"));
 
@@ -1,9 +1,33 @@
 package ru.practicum.shareit.user.dao;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
+
+    // поиск по уникальному индексу UQ_USER_EMAIL
+    boolean existsByEmailAndIdNot(String email, Integer id);
+
+    List<User> findAllByIdGreaterThanOrderById(Integer id, Pageable page);
+
+    List<User> findAllByOrderById(Pageable page);
+
+    /**
+     * Читает всех пользователей курсором JDBC порциями по 500 строк сразу в DTO,
+     * поэтому ни список, ни сущности в контексте персистентности не накапливаются.
+     * Поток нужно читать и закрывать внутри транзакции.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) from User u order by u.id")
+    Stream<UserDto> streamAll();
 }
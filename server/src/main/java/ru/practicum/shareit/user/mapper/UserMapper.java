@@ -5,6 +5,7 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @UtilityClass
@@ -25,7 +26,7 @@ public class UserMapper {
                 .build();
     }
 
-    public Collection<UserDto> usersListToDto(Collection<User> users) {
+    public List<UserDto> usersListToDto(Collection<User> users) {
         return users.stream()
                 .map(UserMapper::userToDto)
                 .collect(Collectors.toList());
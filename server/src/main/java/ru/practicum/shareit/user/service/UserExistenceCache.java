@@ -0,0 +1,100 @@
+package ru.practicum.shareit.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.cache.EntityChangeEvent;
+import ru.practicum.shareit.cache.EntityType;
+import ru.practicum.shareit.cache.LocalCachesResyncEvent;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import java.time.Duration;
+
+/**
+ * Кэш существования пользователей по ID для проверки заголовка X-Sharer-User-Id без запроса к БД.
+ * Отсутствующие ID тоже кэшируются, но на меньший срок. Записи сбрасываются после фиксации транзакций,
+ * создающих и удаляющих пользователей.
+ */
+@Component
+public class UserExistenceCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Integer, Boolean> cache;
+
+    public UserExistenceCache(UserRepository userRepository,
+                              @Value("${shareit.users.existence-cache.max-size:100000}") long maxSize,
+                              @Value("${shareit.users.existence-cache.ttl:10m}") Duration ttl,
+                              @Value("${shareit.users.existence-cache.negative-ttl:30s}") Duration negativeTtl,
+                              MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Integer, Boolean>() {
+                    @Override
+                    public long expireAfterCreate(Integer userId, Boolean exists, long currentTime) {
+                        return (exists ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Integer userId, Boolean exists, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(userId, exists, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Integer userId, Boolean exists, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userExistence");
+    }
+
+    public boolean exists(Integer userId) {
+        if (userId == null) {
+            return false;
+        }
+        return cache.get(userId, userRepository::existsById);
+    }
+
+    /**
+     * Сбрасывает запись по изменению пользователя на другом узле.
+     */
+    @EventListener
+    public void onEntityChanged(EntityChangeEvent event) {
+        if (event.getType() == EntityType.USER) {
+            cache.invalidateAll(event.getIds());
+        }
+    }
+
+    @EventListener
+    public void onResync(LocalCachesResyncEvent event) {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Сбрасывает запись после фиксации текущей транзакции: до нее другой поток мог бы снова закэшировать
+     * еще не зафиксированное состояние.
+     */
+    public void invalidate(Integer userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        } else {
+            cache.invalidate(userId);
+        }
+    }
+}
@@ -2,11 +2,22 @@ package ru.practicum.shareit.user.service;
 
 import ru.practicum.shareit.user.dto.UserDto;
 
-import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
-    Collection<UserDto> getAllUsers();
+    List<UserDto> getAllUsers(Integer from, Integer size);
+
+    /**
+     * Страница пользователей с ID больше курсора; пустой курсор означает первую страницу.
+     */
+    List<UserDto> getUsersAfter(String cursor, Integer size);
+
+    /**
+     * Передает всех пользователей по одному в порядке ID, не собирая их в список.
+     */
+    void exportUsers(Consumer<UserDto> consumer);
 
     UserDto getUserById(Integer id);
 
@@ -2,16 +2,22 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.cache.EntityChangeNotifier;
 import ru.practicum.shareit.exception.ConflictExistsException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
-import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -20,14 +26,32 @@ import java.util.Collection;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final EmailBloomFilter emailBloomFilter;
+    private final UserExistenceCache userExistenceCache;
+    private final EntityChangeNotifier entityChangeNotifier;
 
-    @Transactional
-    public Collection<UserDto> getAllUsers() {
-        log.info("Получение списка всех пользователей");
-        return UserMapper.usersListToDto(userRepository.findAll());
+    @Transactional(readOnly = true)
+    public List<UserDto> getAllUsers(Integer from, Integer size) {
+        log.info("Получение списка пользователей, from={}, size={}", from, size);
+        return UserMapper.usersListToDto(userRepository.findAllByOrderById(PageRequest.of(from / size, size)));
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    public List<UserDto> getUsersAfter(String cursor, Integer size) {
+        log.info("Получение списка пользователей после курсора {}, size={}", cursor, size);
+        return UserMapper.usersListToDto(
+                userRepository.findAllByIdGreaterThanOrderById(decodeCursor(cursor), PageRequest.of(0, size)));
+    }
+
+    @Transactional(readOnly = true)
+    public void exportUsers(Consumer<UserDto> consumer) {
+        log.info("Выгрузка всех пользователей");
+        try (Stream<UserDto> users = userRepository.streamAll()) {
+            users.forEach(consumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public UserDto getUserById(Integer id) {
         log.info("Получение пользователя по ID {}", id);
         User user = userRepository.findById(id)
@@ -39,7 +63,19 @@ public class UserServiceImpl implements UserService {
     public UserDto createUser(UserDto userDto) {
         User user = UserMapper.toUser(userDto);
         log.info("Создание пользователя с email: {}", user.getEmail());
-        return UserMapper.userToDto(userRepository.save(user));
+        User savedUser;
+        try {
+            // ID берется из последовательности и INSERT откладывается до фиксации, поэтому flush здесь:
+            // иначе нарушение уникальности email всплыло бы при фиксации как ошибка 500
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictExistsException("Email " + user.getEmail() + " уже зарегистрирован");
+        }
+        emailBloomFilter.put(savedUser.getEmail());
+        // ID мог быть закэширован как отсутствующий
+        userExistenceCache.invalidate(savedUser.getId());
+        entityChangeNotifier.userChanged(savedUser.getId());
+        return UserMapper.userToDto(savedUser);
     }
 
     @Transactional
@@ -47,16 +83,26 @@ public class UserServiceImpl implements UserService {
         User existingUser = userRepository.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Пользователя с ID " + userId + " не существует"));
 
-        if (userDto.getEmail() != null && !userDto.getEmail().isEmpty()) {
-            checkIfEmailAlreadyRegistered(userId, userDto.getEmail());
-            existingUser.setEmail(userDto.getEmail());
+        String email = userDto.getEmail();
+        if (email != null && !email.isEmpty() && !email.equals(existingUser.getEmail())) {
+            checkIfEmailAlreadyRegistered(userId, email);
+            existingUser.setEmail(email);
         }
         if (userDto.getName() != null && !userDto.getName().isEmpty()) {
             existingUser.setName(userDto.getName());
         }
 
         log.info("Изменение данных пользователя с ID {}", userId);
-        return UserMapper.userToDto(userRepository.save(existingUser));
+        User savedUser;
+        try {
+            // flush внутри метода, чтобы нарушение уникальности email при гонке обновлений было видно здесь
+            savedUser = userRepository.saveAndFlush(existingUser);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictExistsException("Email " + existingUser.getEmail() + " уже зарегистрирован");
+        }
+        emailBloomFilter.put(savedUser.getEmail());
+        entityChangeNotifier.userChanged(userId);
+        return UserMapper.userToDto(savedUser);
     }
 
     @Transactional
@@ -65,17 +111,25 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new EntityNotFoundException("Пользователя с ID " + userId + " не существует"));
         log.info("Удаление пользователя с ID {}", userId);
         userRepository.delete(user);
+        userExistenceCache.invalidate(userId);
+        entityChangeNotifier.userChanged(userId);
+    }
+
+    private static Integer decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Integer.valueOf(cursor);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Некорректный курсор: " + cursor);
+        }
     }
 
     private void checkIfEmailAlreadyRegistered(Integer userId, String email) {
-        Collection<UserDto> users = getAllUsers();
-        for (UserDto u : users) {
-            if (u.getId().equals(userId)) {
-                continue;
-            }
-            if (u.getEmail().equals(email)) {
-                throw new ConflictExistsException("Email " + email + " уже зарегистрирован");
-            }
+        // фильтр отсекает заведомо свободные адреса без обращения к БД
+        if (emailBloomFilter.mightContain(email) && userRepository.existsByEmailAndIdNot(email, userId)) {
+            throw new ConflictExistsException("Email " + email + " уже зарегистрирован");
         }
     }
 }
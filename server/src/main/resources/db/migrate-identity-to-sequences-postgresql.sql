@@ -0,0 +1,62 @@
+-- Перевод существующей БД PostgreSQL с IDENTITY-столбцов на последовательности с шагом 50.
+-- Выполняется один раз вручную, до запуска новой версии сервера и при отключенной инициализации схемы
+-- (spring.sql.init.mode=never): schema.sql пересоздает таблицы и данные не сохраняет.
+-- Последовательность начинается после максимального ID, так что блоки ID не пересекаются с существующими строками.
+-- Так как schema.sql и schema-postgresql.sql после этого не выполняются, скрипт также создает индексы,
+-- столбец полнотекстового поиска и ограничение на пересечение бронирований, если их еще нет.
+-- Повторный запуск ничего не меняет.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq INCREMENT BY 50;
+
+SELECT setval('users_seq', COALESCE((SELECT max(id) FROM users), 0) + 1, false);
+SELECT setval('requests_seq', COALESCE((SELECT max(id) FROM requests), 0) + 1, false);
+SELECT setval('items_seq', COALESCE((SELECT max(id) FROM items), 0) + 1, false);
+SELECT setval('bookings_seq', COALESCE((SELECT max(id) FROM bookings), 0) + 1, false);
+SELECT setval('comments_seq', COALESCE((SELECT max(id) FROM comments), 0) + 1, false);
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_status ON bookings (status);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+CREATE INDEX IF NOT EXISTS idx_requests_requester_created ON requests (requester_id, create_date DESC);
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector
+  GENERATED ALWAYS AS (to_tsvector('russian', name || ' ' || description)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_items_search_vector ON items USING gin (search_vector);
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_items_text_trgm ON items
+  USING gin ((lower(name || ' ' || description)) gin_trgm_ops);
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- ограничение не поддерживает IF NOT EXISTS; добавление завершится ошибкой, если в данных уже есть
+-- пересекающиеся активные бронирования, и их нужно будет разрешить до повторного запуска
+DO $$
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ex_bookings_item_period') THEN
+    ALTER TABLE bookings ADD CONSTRAINT ex_bookings_item_period
+      EXCLUDE USING gist (item_id WITH =, tsrange(start_time, end_time, '[]') WITH &&)
+      WHERE (status IN ('WAITING', 'APPROVED'));
+  END IF;
+END
+$$;
+
+COMMIT;
@@ -0,0 +1,15 @@
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector
+  GENERATED ALWAYS AS (to_tsvector('russian', name || ' ' || description)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_items_search_vector ON items USING gin (search_vector);
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_items_text_trgm ON items
+  USING gin ((lower(name || ' ' || description)) gin_trgm_ops);
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings ADD CONSTRAINT ex_bookings_item_period
+  EXCLUDE USING gist (item_id WITH =, tsrange(start_time, end_time, '[]') WITH &&)
+  WHERE (status IN ('WAITING', 'APPROVED'));
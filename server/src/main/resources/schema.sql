@@ -3,10 +3,22 @@ drop table if exists requests cascade;
 drop table if exists items cascade;
 drop table if exists bookings cascade;
 drop table if exists comments cascade;
+drop sequence if exists users_seq;
+drop sequence if exists requests_seq;
+drop sequence if exists items_seq;
+drop sequence if exists bookings_seq;
+drop sequence if exists comments_seq;
+
+-- ID выдает Hibernate блоками по 50 (оптимизатор pooled-lo), что позволяет пакетную вставку строк
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
 
 
 CREATE TABLE IF NOT EXISTS users (
-	id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+	id INTEGER NOT NULL,
 	name VARCHAR(255) NOT NULL,
 	email VARCHAR(512) NOT null,
 	CONSTRAINT pk_user PRIMARY KEY (id),
@@ -14,7 +26,7 @@ CREATE TABLE IF NOT EXISTS users (
 );
 
 CREATE TABLE IF NOT EXISTS requests (
-  id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  id INTEGER NOT NULL,
   description VARCHAR(1000) NOT NULL,
   requester_id INTEGER NOT NULL,
   create_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
@@ -23,7 +35,7 @@ CREATE TABLE IF NOT EXISTS requests (
 );
 
 CREATE TABLE IF NOT EXISTS items (
-	id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+	id INTEGER NOT NULL,
 	name VARCHAR(128) NOT NULL,
 	description VARCHAR(512) NOT NULL,
 	available BOOLEAN NOT NULL,
@@ -36,7 +48,7 @@ CREATE TABLE IF NOT EXISTS items (
 
 
 CREATE TABLE IF NOT EXISTS bookings (
-  id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  id INTEGER NOT NULL,
   start_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
   end_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
   item_id INTEGER NOT NULL,
@@ -48,7 +60,7 @@ CREATE TABLE IF NOT EXISTS bookings (
 );
 
 CREATE TABLE IF NOT EXISTS comments (
-  id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  id INTEGER NOT NULL,
   text VARCHAR(500),
   item_id INTEGER NOT NULL,
   author_id INTEGER NOT NULL,
@@ -58,3 +70,11 @@ CREATE TABLE IF NOT EXISTS comments (
   CONSTRAINT fk_comments_to_users FOREIGN KEY(author_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_status ON bookings (status);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+CREATE INDEX IF NOT EXISTS idx_requests_requester_created ON requests (requester_id, create_date DESC);
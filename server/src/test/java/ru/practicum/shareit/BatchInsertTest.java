@@ -0,0 +1,51 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.metrics.SqlStatementStats;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * ID выдаются из последовательности блоками, поэтому новые строки вставляются одним пакетом JDBC.
+ */
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BatchInsertTest {
+
+    private static final int USERS = 30;
+
+    private final UserRepository userRepository;
+
+    @Test
+    void testUsersAreInsertedInOneBatch() {
+        List<User> users = IntStream.range(0, USERS)
+                .mapToObj(i -> User.builder().name("batch user " + i).email("batch" + i + "@email.com").build())
+                .collect(Collectors.toList());
+
+        SqlStatementStats stats = SqlStatementStats.start();
+        try {
+            userRepository.saveAll(users);
+            userRepository.flush();
+        } finally {
+            SqlStatementStats.stop();
+        }
+
+        // не больше двух запросов к последовательности (часть блока могли занять другие тесты) и один пакет вставок
+        assertThat(stats.getStatements(), is(lessThanOrEqualTo(3)));
+
+        assertThat(users.stream().map(User::getId).distinct().count(), is((long) USERS));
+    }
+}
@@ -0,0 +1,179 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.SqlStatementCollector;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Выполняет горячие запросы репозиториев на заполненной БД, получает их SQL от Hibernate
+ * и проверяет через EXPLAIN, что ни одна таблица не читается полным сканированием.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.util.SqlStatementCollector")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class IndexUsageTest {
+
+    private static final int USERS = 50;
+    private static final int ITEMS_PER_USER = 4;
+    private static final int BOOKINGS_PER_ITEM = 5;
+
+    private final EntityManager em;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final UserRepository userRepository;
+
+    private User user;
+    private Item item;
+    private ItemRequest request;
+
+    @BeforeEach
+    void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User u = User.builder().name("user " + i).email("user" + i + "@email.com").build();
+            em.persist(u);
+            users.add(u);
+
+            ItemRequest r = ItemRequest.builder().description("нужна вещь " + i).requester(u).created(now).build();
+            em.persist(r);
+
+            for (int j = 0; j < ITEMS_PER_USER; j++) {
+                Item it = Item.builder()
+                        .name("вещь " + i + "-" + j)
+                        .description("описание")
+                        .available(true)
+                        .owner(u)
+                        .request(j == 0 ? r : null)
+                        .build();
+                em.persist(it);
+                if (i == 0 && j == 0) {
+                    item = it;
+                    request = r;
+                }
+            }
+        }
+        user = users.get(0);
+
+        List<Item> items = em.createQuery("select i from Item i", Item.class).getResultList();
+        for (Item it : items) {
+            for (int k = 0; k < BOOKINGS_PER_ITEM; k++) {
+                User booker = users.get((it.getId() + k) % USERS);
+                em.persist(Booking.builder()
+                        .start(now.plusDays(k * 2L - 4))
+                        .end(now.plusDays(k * 2L - 3))
+                        .status(Status.values()[k % Status.values().length])
+                        .item(it)
+                        .booker(booker)
+                        .build());
+                em.persist(Comment.builder().text("отзыв").item(it).author(booker).created(now).build());
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void testHotQueriesUseIndexes() {
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest page = PageRequest.of(0, 10);
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+
+        queries.put("BookingRepository.existsByItemIdAndStatusIn...", () -> bookingRepository
+                .existsByItemIdAndStatusInAndStartLessThanEqualAndEndGreaterThanEqual(
+                        item.getId(), List.of(Status.WAITING, Status.APPROVED), now.plusDays(1), now));
+        queries.put("BookingRepository.findFirstByItemIdAndBookerIdAndStatusAndEndBefore", () -> bookingRepository
+                .findFirstByItemIdAndBookerIdAndStatusAndEndBefore(item.getId(), user.getId(), Status.APPROVED, now));
+        queries.put("BookingRepository.findLastAndNextApprovedBookings", () -> bookingRepository
+                .findLastAndNextApprovedBookings(List.of(item.getId()), now));
+        for (BookingRole role : BookingRole.values()) {
+            for (State state : State.values()) {
+                queries.put("BookingRepository.findBookings " + role + " " + state, () -> bookingRepository
+                        .findBookings(role, user.getId(), state, now, page));
+            }
+            queries.put("BookingRepository.findBookingsAfter " + role, () -> bookingRepository
+                    .findBookingsAfter(role, user.getId(), State.ALL, now, new BookingCursor(now, 100), 10));
+        }
+        queries.put("ItemRepository.findByIdForUpdate", () -> itemRepository.findByIdForUpdate(item.getId()));
+        queries.put("ItemRepository.findAllByOwnerIdOrderById", () -> itemRepository
+                .findAllByOwnerIdOrderById(user.getId(), page));
+        queries.put("ItemRepository.findAllByRequestIdIn", () -> itemRepository
+                .findAllByRequestIdIn(List.of(request.getId())));
+        queries.put("ItemRepository.findAvailableDtosByIdIn", () -> itemRepository
+                .findAvailableDtosByIdIn(List.of(item.getId())));
+        queries.put("ItemRepository.findResponseById", () -> itemRepository.findResponseById(item.getId()));
+        queries.put("CommentRepository.findCommentsForItemsIn", () -> commentRepository
+                .findCommentsForItemsIn(List.of(item), Sort.by(Sort.Direction.DESC, "created")));
+        queries.put("CommentRepository.findResponsesByItemId", () -> commentRepository
+                .findResponsesByItemId(item.getId()));
+        queries.put("UserRepository.existsByEmailAndIdNot", () -> userRepository
+                .existsByEmailAndIdNot(user.getEmail(), user.getId()));
+        queries.put("ItemRequestRepository.findAllByRequesterIdOrderByCreatedDesc", () -> itemRequestRepository
+                .findAllByRequesterIdOrderByCreatedDesc(user.getId()));
+
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            SqlStatementCollector.clear();
+            query.getValue().run();
+            List<String> statements = SqlStatementCollector.statements();
+
+            assertFalse(statements.isEmpty(), query.getKey() + ": запрос не был выполнен");
+            for (String sql : statements) {
+                String plan = explain(sql);
+                assertFalse(plan.contains("tableScan"),
+                        query.getKey() + " читает таблицу полным сканированием:\n" + plan);
+            }
+        }
+    }
+
+    @Test
+    void testExplainDetectsFullScan() {
+        assertTrue(explain("select * from bookings where end_time > ?").contains("tableScan"));
+    }
+
+    private String explain(String sql) {
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                 ResultSet plan = statement.executeQuery()) {
+                StringBuilder result = new StringBuilder();
+                while (plan.next()) {
+                    result.append(plan.getString(1)).append('\n');
+                }
+                return result.toString();
+            }
+        });
+    }
+}
@@ -0,0 +1,149 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.SqlStatementCollector;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Проверяет, что чтение страницы вместе с преобразованием в DTO выполняется фиксированным числом запросов,
+ * не зависящим от числа строк на странице: связанные сущности не догружаются по одной (N+1).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.util.SqlStatementCollector")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class QueryCountTest {
+
+    private final EntityManager em;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final ItemRequestRepository itemRequestRepository;
+
+    private User owner;
+    private final List<Booking> bookings = new ArrayList<>();
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20})
+    void testBookingPageIsReadWithOneStatement(int rows) {
+        seed(rows);
+
+        SqlStatementCollector.clear();
+        int size = bookingRepository.findBookings(
+                BookingRole.OWNER, owner.getId(), State.ALL, LocalDateTime.now(), PageRequest.of(0, 100)).size();
+
+        assertEquals(rows, size);
+        assertEquals(1, SqlStatementCollector.statements().size(), SqlStatementCollector.statements().toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20})
+    void testBookingIsReadWithItemAndBookerInOneStatement(int rows) {
+        seed(rows);
+
+        SqlStatementCollector.clear();
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookings.get(0).getId()).orElseThrow();
+        BookingMapper.toBookingResponseDto(booking);
+
+        assertEquals(1, SqlStatementCollector.statements().size(), SqlStatementCollector.statements().toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20})
+    void testOwnerItemsWithCommentsAreReadWithTwoStatements(int rows) {
+        seed(rows);
+
+        SqlStatementCollector.clear();
+        List<Item> ownerItems = itemRepository.findAllByOwnerIdOrderById(owner.getId(), PageRequest.of(0, 100));
+        List<Comment> comments = commentRepository.findCommentsForItemsIn(ownerItems, Sort.by("id"));
+        ownerItems.forEach(item -> ItemMapper.itemToItemResponseDto(item, null, null, comments));
+
+        assertEquals(rows, comments.size());
+        assertEquals(2, SqlStatementCollector.statements().size(), SqlStatementCollector.statements().toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20})
+    void testRequestsWithResponsesAreReadWithTwoStatements(int rows) {
+        seed(rows);
+
+        SqlStatementCollector.clear();
+        List<ItemRequest> otherRequests = itemRequestRepository.findAllByRequesterIdNot(owner.getId(),
+                PageRequest.of(0, 100));
+        List<Item> responses = itemRepository.findAllByRequestIdIn(otherRequests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList()));
+        responses.forEach(item -> ItemMapper.toItemResponseDtoForRequest(item, item.getRequest().getId()));
+        otherRequests.forEach(request -> ItemRequestMapper.toItemRequestDtoWithResponses(request,
+                Collections.emptyList()));
+
+        assertEquals(rows, responses.size());
+        assertEquals(2, SqlStatementCollector.statements().size(), SqlStatementCollector.statements().toString());
+    }
+
+    private void seed(int rows) {
+        LocalDateTime now = LocalDateTime.now();
+        owner = persist(new User(null, "owner", "owner@email.com"));
+        for (int i = 0; i < rows; i++) {
+            // у каждой строки свои автор бронирования и автор запроса, чтобы связи не разрешались из кэша сессии
+            User booker = persist(new User(null, "booker " + i, "booker" + i + "@email.com"));
+            User requester = persist(new User(null, "requester " + i, "requester" + i + "@email.com"));
+            ItemRequest request = persist(ItemRequest.builder()
+                    .description("нужна вещь " + i)
+                    .requester(requester)
+                    .created(now)
+                    .build());
+            Item item = persist(Item.builder()
+                    .name("вещь " + i)
+                    .description("описание")
+                    .available(true)
+                    .owner(owner)
+                    .request(request)
+                    .build());
+            Booking booking = persist(Booking.builder()
+                    .start(now.plusDays(i + 1))
+                    .end(now.plusDays(i + 2))
+                    .status(Status.WAITING)
+                    .item(item)
+                    .booker(booker)
+                    .build());
+            persist(Comment.builder().text("отзыв").item(item).author(booker).created(now).build());
+            bookings.add(booking);
+        }
+        em.flush();
+        em.clear();
+    }
+
+    private <T> T persist(T entity) {
+        em.persist(entity);
+        return entity;
+    }
+}
@@ -0,0 +1,183 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.AvailabilityException;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest(
+        properties = "spring.datasource.url=jdbc:h2:mem:shareit-booking-concurrency;LOCK_TIMEOUT=10000",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private User booker;
+    private Item item;
+    private Item otherItem;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void beforeEach() {
+        User owner = userRepository.save(new User(null, "owner", "owner@email.com"));
+        booker = userRepository.save(new User(null, "booker", "booker@email.com"));
+        item = itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Популярная дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+        otherItem = itemRepository.save(Item.builder()
+                .name("Отвертка")
+                .description("Обычная отвертка")
+                .available(true)
+                .owner(owner)
+                .build());
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testOnlyOneOfConcurrentIdenticalBookingsSucceeds() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        int created = runConcurrently(i -> bookingDto(item, start, start.plusDays(1)));
+
+        assertThat(created, is(1));
+        assertThat(bookingsOf(item).size(), is(1));
+    }
+
+    @Test
+    void testConcurrentOverlappingBookingsNeverOverlap() throws Exception {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        int created = runConcurrently(i -> bookingDto(item, base.plusHours(i), base.plusHours(i + 3)));
+
+        List<Booking> bookings = bookingsOf(item);
+        assertThat(created, greaterThanOrEqualTo(1));
+        assertThat(bookings.size(), is(created));
+        for (int i = 0; i < bookings.size(); i++) {
+            for (int j = i + 1; j < bookings.size(); j++) {
+                Booking first = bookings.get(i);
+                Booking second = bookings.get(j);
+                boolean overlaps = !first.getStart().isAfter(second.getEnd())
+                        && !second.getStart().isAfter(first.getEnd());
+                assertThat("Бронирования " + first.getId() + " и " + second.getId() + " пересекаются",
+                        overlaps, is(false));
+            }
+        }
+    }
+
+    @Test
+    void testLockedItemDoesNotBlockBookingsOfOtherItems() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        CountDownLatch itemLocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> lockHolder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            itemRepository.findByIdForUpdate(item.getId());
+            itemLocked.countDown();
+            awaitQuietly(release);
+        }));
+        assertThat(itemLocked.await(5, TimeUnit.SECONDS), is(true));
+
+        Future<?> sameItemBooking = executor.submit(() ->
+                bookingService.createBooking(booker.getId(), bookingDto(item, start, start.plusDays(1))));
+        Future<?> otherItemBooking = executor.submit(() ->
+                bookingService.createBooking(booker.getId(), bookingDto(otherItem, start, start.plusDays(1))));
+
+        otherItemBooking.get(5, TimeUnit.SECONDS);
+        assertThat(sameItemBooking.isDone(), is(false));
+
+        release.countDown();
+        lockHolder.get(5, TimeUnit.SECONDS);
+        sameItemBooking.get(5, TimeUnit.SECONDS);
+        assertThat(bookingsOf(item).size(), is(1));
+        assertThat(bookingsOf(otherItem).size(), is(1));
+    }
+
+    private int runConcurrently(IntFunction<BookingDto> bookingForThread) throws Exception {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            BookingDto bookingDto = bookingForThread.apply(i);
+            futures.add(executor.submit(() -> {
+                awaitQuietly(startSignal);
+                try {
+                    bookingService.createBooking(booker.getId(), bookingDto);
+                    created.incrementAndGet();
+                } catch (AvailabilityException e) {
+                    // вещь уже забронирована параллельным запросом
+                }
+            }));
+        }
+        startSignal.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        return created.get();
+    }
+
+    private List<Booking> bookingsOf(Item item) {
+        return bookingRepository.findAll().stream()
+                .filter(booking -> booking.getItem().getId().equals(item.getId()))
+                .collect(Collectors.toList());
+    }
+
+    private static BookingDto bookingDto(Item item, LocalDateTime start, LocalDateTime end) {
+        return BookingDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(end)
+                .build();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.State;
@@ -219,6 +220,34 @@ public class BookingControllerTest {
                 .getAllBookingsByUser(1, State.valueOf("ALL"), 0, 10);
     }
 
+    @Test
+    void testGetBookingsByUserWithCursor() throws Exception {
+        Mockito.when(bookingService.getBookingsByUserAfter(any(), any(), any(), any()))
+                .thenReturn(List.of(approvedBookingResponseDto));
+        String nextCursor = BookingCursor.of(approvedBookingResponseDto).encode();
+
+        mvc.perform(get("/bookings")
+                        .param("state", "ALL")
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingCursor.NEXT_CURSOR_HEADER, nextCursor))
+                .andExpect(jsonPath("$[0].id", is(approvedBookingResponseDto.getId()), Integer.class));
+
+        mvc.perform(get("/bookings/owner")
+                        .param("cursor", nextCursor)
+                        .param("size", "10")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingCursor.NEXT_CURSOR_HEADER));
+
+        Mockito.verify(bookingService).getBookingsByUserAfter(1, State.ALL, "", 1);
+        Mockito.verify(bookingService).getItemBookingsByOwnerAfter(1, State.ALL, nextCursor, 10);
+    }
+
     @Test
     void testGetAllItemBookingsByOwner() throws Exception {
         Mockito.when(bookingService.getAllItemBookingsByOwner(any(), any(), any(), any()))
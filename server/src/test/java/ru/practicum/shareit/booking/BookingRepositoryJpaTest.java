@@ -5,9 +5,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.ItemBookingView;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
@@ -15,9 +21,13 @@ import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @DataJpaTest
 public class BookingRepositoryJpaTest {
@@ -65,27 +75,130 @@ public class BookingRepositoryJpaTest {
     }
 
     @Test
-    void testFindIfItemIsAvailableForBookingDates() {
-        List<Booking> bookings = bookingRepository
-                .findIfItemIsAvailableForBookingDates(
-                        itemFromDb.getId(),
-                        LocalDateTime.now().plusDays(2).plusHours(2),
-                        LocalDateTime.now().plusDays(3).minusHours(2));
-
-        assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getItem().getName(), itemFromDb.getName());
-        assertEquals(bookings.get(0).getBooker().getId(), bookerFromDb.getId());
-        assertEquals(bookings.get(0).getBooker().getEmail(), bookerFromDb.getEmail());
+    void testExistsOverlappingBooking() {
+        List<Status> activeStatuses = List.of(Status.WAITING, Status.APPROVED);
+
+        assertTrue(bookingRepository.existsByItemIdAndStatusInAndStartLessThanEqualAndEndGreaterThanEqual(
+                itemFromDb.getId(),
+                activeStatuses,
+                LocalDateTime.now().plusDays(3).minusHours(2),
+                LocalDateTime.now().plusDays(2).plusHours(2)));
+        assertFalse(bookingRepository.existsByItemIdAndStatusInAndStartLessThanEqualAndEndGreaterThanEqual(
+                itemFromDb.getId(),
+                activeStatuses,
+                LocalDateTime.now().plusDays(5),
+                LocalDateTime.now().plusDays(4)));
+        assertFalse(bookingRepository.existsByItemIdAndStatusInAndStartLessThanEqualAndEndGreaterThanEqual(
+                itemFromDb.getId(),
+                List.of(Status.WAITING),
+                LocalDateTime.now().plusDays(3).minusHours(2),
+                LocalDateTime.now().plusDays(2).plusHours(2)));
     }
 
     @Test
-    void findApprovedBookingsFor() {
-        List<Booking> bookings = bookingRepository
-                .findApprovedBookingsFor(List.of(itemFromDb), Sort.by(Sort.Direction.DESC, "start"));
+    void testFindLastAndNextApprovedBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking last = saveBooking(now.minusDays(1), now.plusHours(1), Status.APPROVED);
+        saveBooking(now.minusDays(5), now.minusDays(4), Status.APPROVED);
+        saveBooking(now.plusHours(1), now.plusHours(2), Status.REJECTED);
+        Booking next = saveBooking(now.plusHours(3), now.plusHours(4), Status.APPROVED);
+
+        List<ItemBookingView> bookings = bookingRepository
+                .findLastAndNextApprovedBookings(List.of(itemFromDb.getId()), now);
+
+        assertEquals(2, bookings.size());
+        ItemBookingView lastView = bookings.stream().filter(b -> !b.getNext()).findFirst().orElseThrow();
+        ItemBookingView nextView = bookings.stream().filter(ItemBookingView::getNext).findFirst().orElseThrow();
+        assertEquals(last.getId(), lastView.getId());
+        assertEquals(itemFromDb.getId(), lastView.getItemId());
+        assertEquals(bookerFromDb.getId(), lastView.getBookerId());
+        assertEquals(last.getStart(), lastView.getStart());
+        assertEquals(Status.APPROVED, lastView.getStatus());
+        assertEquals(next.getId(), nextView.getId());
+        assertEquals(next.getEnd(), nextView.getEnd());
+    }
+
+    @Test
+    void testFindByBookerIdAfterPagesThroughAllBookingsWithoutGaps() {
+        LocalDateTime start = LocalDateTime.now().plusDays(10).withNano(0);
+        for (int i = 0; i < 4; i++) {
+            bookingRepository.save(Booking.builder()
+                    .start(i < 2 ? start : start.plusDays(i))
+                    .end(start.plusDays(i + 1))
+                    .status(Status.WAITING)
+                    .item(itemFromDb)
+                    .booker(bookerFromDb)
+                    .build());
+        }
+        List<Integer> expected = bookingRepository.findAll(
+                Sort.by(Sort.Direction.DESC, "start").and(Sort.by(Sort.Direction.DESC, "id"))).stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+
+        List<Integer> actual = new ArrayList<>();
+        BookingCursor cursor = null;
+        List<BookingResponseDto> page;
+        do {
+            page = bookingRepository.findBookingsAfter(
+                    BookingRole.BOOKER, bookerFromDb.getId(), State.ALL, LocalDateTime.now(), cursor, 2);
+            page.forEach(booking -> actual.add(booking.getId()));
+            if (!page.isEmpty()) {
+                BookingResponseDto last = page.get(page.size() - 1);
+                cursor = BookingCursor.decode(new BookingCursor(last.getStart(), last.getId()).encode());
+            }
+        } while (page.size() == 2);
+
+        assertEquals(5, actual.size());
+        assertEquals(expected, actual);
+        assertTrue(bookingRepository.findBookingsAfter(
+                BookingRole.OWNER, bookerFromDb.getId(), State.ALL, LocalDateTime.now(), null, 10).isEmpty());
+        assertEquals(4, bookingRepository.findBookingsAfter(
+                BookingRole.OWNER, itemFromDb.getOwner().getId(), State.WAITING, LocalDateTime.now(), null, 10).size());
+    }
+
+    @Test
+    void testFindBookingsFiltersByRoleAndState() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking canceled = bookingRepository.save(Booking.builder()
+                .start(now.minusDays(2))
+                .end(now.minusDays(1))
+                .status(Status.CANCELED)
+                .item(itemFromDb)
+                .booker(bookerFromDb)
+                .build());
+        Integer ownerId = itemFromDb.getOwner().getId();
+        PageRequest page = PageRequest.of(0, 10);
+
+        assertEquals(2, bookingRepository.findBookings(BookingRole.BOOKER, bookerFromDb.getId(), State.ALL, now, page)
+                .size());
+        List<BookingResponseDto> canceledForOwner = bookingRepository.findBookings(
+                BookingRole.OWNER, ownerId, State.CANCELED, now, page);
+        assertEquals(1, canceledForOwner.size());
+        assertEquals(canceled.getId(), canceledForOwner.get(0).getId());
+        assertEquals(itemFromDb.getName(), canceledForOwner.get(0).getItem().getName());
+        assertEquals(ownerId, canceledForOwner.get(0).getItem().getOwnerId());
+        assertEquals(bookerFromDb.getEmail(), canceledForOwner.get(0).getBooker().getEmail());
+        assertEquals(Status.CANCELED, canceledForOwner.get(0).getStatus());
+        assertEquals(List.of(canceled.getId()), bookingRepository.findBookings(
+                BookingRole.BOOKER, bookerFromDb.getId(), State.PAST, now, page).stream()
+                .map(BookingResponseDto::getId)
+                .collect(Collectors.toList()));
+        assertEquals(1, bookingRepository.findBookings(BookingRole.OWNER, ownerId, State.FUTURE, now, page).size());
+        assertTrue(bookingRepository.findBookings(BookingRole.OWNER, ownerId, State.CURRENT, now, page).isEmpty());
+        assertTrue(bookingRepository.findBookings(BookingRole.OWNER, bookerFromDb.getId(), State.ALL, now, page)
+                .isEmpty());
+        assertEquals(1, bookingRepository.findBookings(
+                BookingRole.BOOKER, bookerFromDb.getId(), State.ALL, now, PageRequest.of(1, 1)).size());
+    }
 
-        assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getItem().getName(), itemFromDb.getName());
-        assertEquals(bookings.get(0).getItem().getOwner(), itemFromDb.getOwner());
+    private Booking saveBooking(LocalDateTime start, LocalDateTime end, Status status) {
+        return bookingRepository.save(Booking.builder()
+                .start(start.withNano(0))
+                .end(end.withNano(0))
+                .status(status)
+                .item(itemFromDb)
+                .booker(bookerFromDb)
+                .build());
     }
 
     @AfterEach
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,7 +12,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.booking.dao.BookingRepository;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
@@ -23,7 +26,9 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -59,7 +64,9 @@ public class BookingServiceTest {
     void beforeEach() {
 
         LocalDateTime now = LocalDateTime.now();
-        bookingService = new BookingServiceImpl(bookingRepository, userRepository, itemRepository);
+        bookingService = new BookingServiceImpl(bookingRepository, userRepository, itemRepository,
+                new UserExistenceCache(userRepository, 1000, Duration.ofMinutes(10), Duration.ofSeconds(30),
+                new SimpleMeterRegistry()));
 
         owner = new User(1, "user name 1", "user1@email.com");
         booker = new User(2, "user name 2", "user2@email.com");
@@ -109,8 +116,8 @@ public class BookingServiceTest {
     @Test
     void testCreateBooking() {
         Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(booker));
-        Mockito.when(itemRepository.findById(any())).thenReturn(Optional.ofNullable(item));
-        Mockito.when(bookingRepository.save(any())).thenReturn(booking);
+        Mockito.when(itemRepository.findByIdForUpdate(any())).thenReturn(Optional.ofNullable(item));
+        Mockito.when(bookingRepository.saveAndFlush(any())).thenReturn(booking);
 
         BookingResponseDto bookingResponseDtoActual = bookingService.createBooking(bookerDto.getId(), bookingDto);
 
@@ -124,8 +131,8 @@ public class BookingServiceTest {
 
     @Test
     void testApproveBooking() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(booker));
-        Mockito.when(bookingRepository.findById(any())).thenReturn(Optional.ofNullable(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findWithItemAndBookerById(any())).thenReturn(Optional.ofNullable(booking));
 
         booking.setStatus(Status.WAITING);
         Mockito.when(bookingRepository.save(any())).thenReturn(booking);
@@ -143,8 +150,8 @@ public class BookingServiceTest {
 
     @Test
     void testGetBookingById() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(booker));
-        Mockito.when(bookingRepository.findById(any())).thenReturn(Optional.ofNullable(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findWithItemAndBookerById(any())).thenReturn(Optional.ofNullable(booking));
 
         BookingResponseDto bookingResponseDtoActual = bookingService
                 .getBookingById(booker.getId(), booking.getId());
@@ -160,8 +167,8 @@ public class BookingServiceTest {
 
     @Test
     void testGetBookingByIdWhenUserNotOwnerNotBooker() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(booker));
-        Mockito.when(bookingRepository.findById(any())).thenReturn(Optional.ofNullable(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findWithItemAndBookerById(any())).thenReturn(Optional.ofNullable(booking));
 
         final EntityNotFoundException exception = Assertions.assertThrows(
                 EntityNotFoundException.class,
@@ -174,8 +181,10 @@ public class BookingServiceTest {
 
     @Test
     void testGetAllBookingsByUserWhenStateIsAll() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(booker));
-        Mockito.when(bookingRepository.findByBookerIdOrderByStartDesc(any(), any())).thenReturn(List.of(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findBookings(
+                        eq(BookingRole.BOOKER), eq(booker.getId()), eq(State.ALL), any(), any()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking)));
 
         List<BookingResponseDto> listOfBookingsActual =
                 bookingService.getAllBookingsByUser(booker.getId(), State.valueOf("ALL"), 0, 10);
@@ -191,9 +200,10 @@ public class BookingServiceTest {
 
     @Test
     void testGetAllBookingsByUserWhenStateIsWaiting() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(booker));
-        Mockito.when(bookingRepository.findByBookerIdAndStatusEqualsOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findBookings(
+                        eq(BookingRole.BOOKER), eq(booker.getId()), eq(State.WAITING), any(), any()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking)));
 
         List<BookingResponseDto> listOfBookingsActual =
                 bookingService.getAllBookingsByUser(booker.getId(), State.valueOf("WAITING"), 0, 10);
@@ -209,9 +219,10 @@ public class BookingServiceTest {
 
     @Test
     void testGetAllBookingsByUserWhenStateIsCurrent() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(booker));
-        Mockito.when(bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(any(), any(), any(), any()))
-                .thenReturn(List.of(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findBookings(
+                        eq(BookingRole.BOOKER), eq(booker.getId()), eq(State.CURRENT), any(), any()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking)));
 
         List<BookingResponseDto> listOfBookingsActual =
                 bookingService.getAllBookingsByUser(booker.getId(), State.valueOf("CURRENT"), 0, 10);
@@ -227,9 +238,10 @@ public class BookingServiceTest {
 
     @Test
     void testGetAllBookingsByUserWhenStateIsPast() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(booker));
-        Mockito.when(bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findBookings(
+                        eq(BookingRole.BOOKER), eq(booker.getId()), eq(State.PAST), any(), any()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking)));
 
         List<BookingResponseDto> listOfBookingsActual =
                 bookingService.getAllBookingsByUser(booker.getId(), State.valueOf("PAST"), 0, 10);
@@ -245,9 +257,10 @@ public class BookingServiceTest {
 
     @Test
     void testGetAllBookingsByUserWhenStateIsFuture() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(booker));
-        Mockito.when(bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findBookings(
+                        eq(BookingRole.BOOKER), eq(booker.getId()), eq(State.FUTURE), any(), any()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking)));
 
         List<BookingResponseDto> listOfBookingsActual =
                 bookingService.getAllBookingsByUser(booker.getId(), State.valueOf("FUTURE"), 0, 10);
@@ -263,9 +276,10 @@ public class BookingServiceTest {
 
     @Test
     void testGetAllBookingsByUserWhenStateIsRejected() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(booker));
-        Mockito.when(bookingRepository.findByBookerIdAndStatusEqualsOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findBookings(
+                        eq(BookingRole.BOOKER), eq(booker.getId()), eq(State.REJECTED), any(), any()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking)));
 
         List<BookingResponseDto> listOfBookingsActual =
                 bookingService.getAllBookingsByUser(booker.getId(), State.valueOf("REJECTED"), 0, 10);
@@ -283,7 +297,7 @@ public class BookingServiceTest {
     void testCreateBookingWhenItemNotAvailable() {
         item.setAvailable(false);
         Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(booker));
-        Mockito.when(itemRepository.findById(any())).thenReturn(Optional.ofNullable(item));
+        Mockito.when(itemRepository.findByIdForUpdate(any())).thenReturn(Optional.ofNullable(item));
 
         final AvailabilityException exception = Assertions.assertThrows(
                 AvailabilityException.class,
@@ -293,10 +307,29 @@ public class BookingServiceTest {
                 exception.getMessage());
     }
 
+    @Test
+    void testCreateBookingWhenItemAlreadyBooked() {
+        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(booker));
+        Mockito.when(itemRepository.findByIdForUpdate(any())).thenReturn(Optional.ofNullable(item));
+        Mockito.when(bookingRepository.existsByItemIdAndStatusInAndStartLessThanEqualAndEndGreaterThanEqual(
+                eq(item.getId()), anyCollection(), eq(bookingDto.getEnd()), eq(bookingDto.getStart())))
+                .thenReturn(true);
+
+        final AvailabilityException exception = Assertions.assertThrows(
+                AvailabilityException.class,
+                () -> bookingService.createBooking(booker.getId(), bookingDto));
+
+        Assertions.assertEquals("400 BAD_REQUEST \"Вещь с ID 1 уже забронирована на указанные даты\"",
+                exception.getMessage());
+        Mockito.verify(bookingRepository, Mockito.never()).save(any());
+    }
+
     @Test
     void testGetAllItemBookingsByOwnerWhenStateIsAll() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(owner));
-        Mockito.when(bookingRepository.findByItemOwnerIdOrderByStartDesc(any(), any())).thenReturn(List.of(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findBookings(
+                        eq(BookingRole.OWNER), eq(owner.getId()), eq(State.ALL), any(), any()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking)));
 
         List<BookingResponseDto> listOfBookingsActual =
                 bookingService.getAllItemBookingsByOwner(owner.getId(), State.valueOf("ALL"), 0, 10);
@@ -312,10 +345,10 @@ public class BookingServiceTest {
 
     @Test
     void testGetAllItemBookingsByOwnerWhenStateIsCurrent() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(owner));
-        Mockito.when(bookingRepository
-                .findByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(any(), any(), any(), any()))
-                .thenReturn(List.of(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findBookings(
+                        eq(BookingRole.OWNER), eq(owner.getId()), eq(State.CURRENT), any(), any()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking)));
 
         List<BookingResponseDto> listOfBookingsActual =
                 bookingService.getAllItemBookingsByOwner(owner.getId(), State.valueOf("CURRENT"), 0, 10);
@@ -331,10 +364,10 @@ public class BookingServiceTest {
 
     @Test
     void testGetAllItemBookingsByOwnerWhenStateIsPast() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(owner));
-        Mockito.when(bookingRepository
-                        .findByItemOwnerIdAndEndBeforeOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findBookings(
+                        eq(BookingRole.OWNER), eq(owner.getId()), eq(State.PAST), any(), any()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking)));
 
         List<BookingResponseDto> listOfBookingsActual =
                 bookingService.getAllItemBookingsByOwner(owner.getId(), State.valueOf("PAST"), 0, 10);
@@ -350,10 +383,10 @@ public class BookingServiceTest {
 
     @Test
     void testGetAllItemBookingsByOwnerWhenStateIsFuture() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(owner));
-        Mockito.when(bookingRepository
-                        .findByItemOwnerIdAndStartAfterOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findBookings(
+                        eq(BookingRole.OWNER), eq(owner.getId()), eq(State.FUTURE), any(), any()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking)));
 
         List<BookingResponseDto> listOfBookingsActual =
                 bookingService.getAllItemBookingsByOwner(owner.getId(), State.valueOf("FUTURE"), 0, 10);
@@ -369,10 +402,10 @@ public class BookingServiceTest {
 
     @Test
     void testGetAllItemBookingsByOwnerWhenStateIsWaiting() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(owner));
-        Mockito.when(bookingRepository
-                        .findByItemOwnerIdAndStatusEqualsOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findBookings(
+                        eq(BookingRole.OWNER), eq(owner.getId()), eq(State.WAITING), any(), any()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking)));
 
         List<BookingResponseDto> listOfBookingsActual =
                 bookingService.getAllItemBookingsByOwner(owner.getId(), State.valueOf("WAITING"), 0, 10);
@@ -388,10 +421,10 @@ public class BookingServiceTest {
 
     @Test
     void testGetAllItemBookingsByOwnerWhenStateIsRejected() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(owner));
-        Mockito.when(bookingRepository
-                        .findByItemOwnerIdAndStatusEqualsOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(booking));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findBookings(
+                        eq(BookingRole.OWNER), eq(owner.getId()), eq(State.REJECTED), any(), any()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking)));
 
         List<BookingResponseDto> listOfBookingsActual =
                 bookingService.getAllItemBookingsByOwner(owner.getId(), State.valueOf("REJECTED"), 0, 10);
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Несколько узлов в одном процессе подписаны на общую шину, у каждого свой кэш.
+ */
+public class CacheInvalidationBusTest {
+
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+    private final InMemoryCacheInvalidationBus bus = new InMemoryCacheInvalidationBus();
+
+    @Test
+    void testChangeOnOneNodeEvictsCacheOnOtherNode() {
+        Node first = new Node();
+        Node second = new Node();
+        Mockito.when(userRepository.existsById(5)).thenReturn(false, true);
+
+        assertThat(second.cache.exists(5), is(false));
+        first.notifier.userChanged(5);
+
+        assertThat(second.cache.exists(5), is(true));
+        assertThat(second.received.size(), is(1));
+        assertThat(first.received, is(empty()));
+    }
+
+    @Test
+    void testEventIsDeliveredOnlyAfterCommit() {
+        Node first = new Node();
+        Node second = new Node();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            first.notifier.itemChanged(1);
+            first.notifier.itemChanged(2);
+            assertThat(second.received, is(empty()));
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.get(0).afterCommit();
+            assertThat(second.received.size(), is(1));
+            assertThat(second.received.get(0).getIds(), is(List.of(1)));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testFailedEventTriggersResyncUntilItSucceeds() throws InterruptedException {
+        AtomicBoolean databaseAvailable = new AtomicBoolean(false);
+        CountDownLatch resynced = new CountDownLatch(1);
+        List<Object> events = new CopyOnWriteArrayList<>();
+        ApplicationEventPublisher publisher = event -> {
+            events.add(event);
+            if (!databaseAvailable.get()) {
+                throw new IllegalStateException("БД недоступна");
+            }
+            if (event instanceof LocalCachesResyncEvent) {
+                resynced.countDown();
+            }
+        };
+        LocalCacheResync resync = new LocalCacheResync(publisher, Duration.ofMillis(10));
+        new EntityChangeNotifier(bus, publisher, resync);
+        Node first = new Node();
+
+        first.notifier.itemChanged(1);
+        databaseAvailable.set(true);
+
+        assertThat(resynced.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(events.get(0), is(instanceOf(EntityChangeEvent.class)));
+        assertThat(events.get(1), is(instanceOf(LocalCachesResyncEvent.class)));
+        resync.shutdown();
+    }
+
+    @Test
+    void testEncodeDecode() {
+        EntityChangeEvent event = new EntityChangeEvent("node", EntityType.ITEM, List.of(42, 43));
+
+        assertThat(EntityChangeEvent.decode(event.encode()), is(event));
+    }
+
+    private class Node {
+        final UserExistenceCache cache = new UserExistenceCache(userRepository, 1000,
+                Duration.ofMinutes(10), Duration.ofSeconds(30), new SimpleMeterRegistry());
+        final List<EntityChangeEvent> received = new ArrayList<>();
+        final EntityChangeNotifier notifier = new EntityChangeNotifier(bus, event -> {
+            received.add((EntityChangeEvent) event);
+            cache.onEntityChanged((EntityChangeEvent) event);
+        }, new LocalCacheResync(event -> { }, Duration.ofSeconds(5)));
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@ExtendWith(MockitoExtension.class)
+public class ReadOnlyRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+    @Mock
+    private DataSource replica;
+    @Mock
+    private Connection primaryConnection;
+    @Mock
+    private Connection replicaConnection;
+
+    @AfterEach
+    void afterEach() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testRoutesByTransactionReadOnlyFlag() throws SQLException {
+        Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+        Mockito.when(replica.getConnection()).thenReturn(replicaConnection);
+        ReadOnlyRoutingDataSource dataSource = new ReadOnlyRoutingDataSource(primary, replica, Duration.ofMinutes(1));
+
+        assertThat(dataSource.getConnection(), is(primaryConnection));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(dataSource.getConnection(), is(replicaConnection));
+    }
+
+    @Test
+    void testFallsBackToPrimaryWhileReplicaIsDown() throws SQLException {
+        Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+        Mockito.when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        ReadOnlyRoutingDataSource dataSource = new ReadOnlyRoutingDataSource(primary, replica, Duration.ofMinutes(1));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(dataSource.getConnection(), is(primaryConnection));
+        assertThat(dataSource.getConnection(), is(primaryConnection));
+        // до истечения интервала повтора реплика больше не опрашивается
+        Mockito.verify(replica, Mockito.times(1)).getConnection();
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Основная БД и реплика — две разные базы H2, поэтому по содержимому ответа видно, откуда шло чтение.
+ */
+@SpringBootTest(
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:shareit-primary",
+                "shareit.datasource.replica.url=" + ReplicaRoutingTest.REPLICA_URL
+        },
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:shareit-replica;DB_CLOSE_DELAY=-1";
+
+    private final UserService userService;
+
+    @BeforeAll
+    static void createReplica() {
+        DriverManagerDataSource replica = new DriverManagerDataSource(REPLICA_URL, "test", "test");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(replica);
+        new JdbcTemplate(replica)
+                .update("insert into users (id, name, email) values (1000, 'replica', 'replica@email.com')");
+    }
+
+    @Test
+    void testReadOnlyTransactionsReadFromReplica() {
+        UserDto created = userService.createUser(new UserDto(null, "primary", "primary@email.com"));
+
+        List<String> names = userService.getAllUsers(0, 20).stream()
+                .map(UserDto::getName)
+                .collect(Collectors.toList());
+
+        assertThat(created.getName(), is("primary"));
+        assertThat(names, is(List.of("replica")));
+    }
+}
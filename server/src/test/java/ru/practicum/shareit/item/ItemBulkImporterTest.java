@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.item.service.ItemBulkImporter;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemBulkImporterTest {
+
+    private static final String VALID = "{\"name\":\"вещь\",\"description\":\"описание\",\"available\":true}";
+
+    @Mock
+    private ItemService itemService;
+    @Mock
+    private UserExistenceCache userExistenceCache;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private ItemBulkImporter importer;
+
+    @BeforeEach
+    void setup() {
+        importer = new ItemBulkImporter(itemService, userExistenceCache, mapper, 2);
+    }
+
+    @Test
+    void testNdjsonIsSavedInBatchesWithResultPerItem() throws IOException {
+        stubCreateItems();
+
+        List<ItemImportResult> results = importItems(String.join("\n", VALID, VALID, VALID, VALID, VALID));
+
+        assertThat(batchSizes, is(List.of(2, 2, 1)));
+        assertThat(results.stream().map(ItemImportResult::getId).collect(Collectors.toList()),
+                is(List.of(1, 2, 3, 4, 5)));
+    }
+
+    @Test
+    void testEmptyBodyImportsNothing() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importer.importItems(1, new ByteArrayInputStream(new byte[0]), out);
+
+        assertThat(out.size(), is(0));
+        Mockito.verifyNoInteractions(itemService);
+    }
+
+    @Test
+    void testFailedBatchIsReportedForEachItem() throws IOException {
+        Mockito.when(itemService.createItems(any(), eq(1))).thenThrow(new IllegalStateException("нет связи с БД"));
+
+        List<ItemImportResult> results = importItems(VALID + "\n" + VALID);
+
+        assertThat(results.size(), is(2));
+        assertThat(results.get(1).getError(), is("Не удалось сохранить вещь: нет связи с БД"));
+    }
+
+    private void stubCreateItems() {
+        AtomicInteger ids = new AtomicInteger();
+        Mockito.when(itemService.createItems(any(), eq(1))).thenAnswer(invocation -> {
+            List<ItemDto> items = invocation.getArgument(0);
+            batchSizes.add(items.size());
+            return items.stream()
+                    .map(item -> ItemImportResult.created(ids.incrementAndGet()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    private List<ItemImportResult> importItems(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importer.importItems(1, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+
+        List<ItemImportResult> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(mapper.readValue(line, ItemImportResult.class));
+        }
+        return results;
+    }
+}
@@ -11,21 +11,27 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.AvailabilityException;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.service.ItemBulkImporter;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +39,8 @@ public class ItemControllerTest {
 
     @Mock
     private ItemService itemService;
+    @Mock
+    private ItemBulkImporter itemBulkImporter;
 
     @InjectMocks
     private ItemController itemController;
@@ -228,7 +236,7 @@ public class ItemControllerTest {
     @Test
     void testFindItems() throws Exception {
         Collection<ItemDto> listOfItems = new ArrayList<>(List.of(itemDto));
-        Mockito.when(itemService.findItems(any())).thenReturn(listOfItems);
+        Mockito.when(itemService.findItems(any(), any(), any())).thenReturn(listOfItems);
 
         mvc.perform(get("/items/search", 1)
                         .param("text", "описание")
@@ -242,6 +250,45 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$[0].ownerId", is(itemDto.getOwnerId())))
                 .andExpect(jsonPath("$[0].available", is(itemDto.getAvailable())));
 
-        Mockito.verify(itemService, Mockito.times(1)).findItems("описание");
+        Mockito.verify(itemService, Mockito.times(1)).findItems("описание", 0, 10);
+    }
+
+    @Test
+    void testSuggestItemNames() throws Exception {
+        Mockito.when(itemService.suggestItemNames(any(), any())).thenReturn(List.of("вещь", "вещь 2"));
+
+        mvc.perform(get("/items/suggest")
+                        .param("text", "ве")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", is("вещь")))
+                .andExpect(jsonPath("$[1]", is("вещь 2")));
+
+        Mockito.verify(itemService, Mockito.times(1)).suggestItemNames("ве", 10);
+    }
+
+    @Test
+    void testImportItems() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(itemBulkImporter).importItems(eq(1), any(), any());
+
+        MvcResult result = mvc.perform(post("/items/bulk")
+                        .content(mapper.writeValueAsString(itemDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n"));
+
+        Mockito.verify(itemBulkImporter, Mockito.times(1)).checkOwner(1);
     }
 }
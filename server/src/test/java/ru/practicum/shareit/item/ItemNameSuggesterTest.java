@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class ItemNameSuggesterTest {
+
+    private ItemNameSuggester suggester;
+
+    @BeforeEach
+    void beforeEach() {
+        suggester = new ItemNameSuggester(3);
+        suggester.update(Item.builder().id(1).name("Дрель").available(true).build());
+        suggester.update(Item.builder().id(2).name("Дрель ударная").available(true).build());
+        suggester.update(Item.builder().id(3).name("дрель").available(true).build());
+    }
+
+    @Test
+    void testSuggestByPrefix() {
+        assertThat(suggester.suggest("ДР", 10), contains("Дрель", "Дрель ударная"));
+        assertThat(suggester.suggest("дрель  у", 10), contains("Дрель ударная"));
+        assertThat(suggester.suggest("др", 1), contains("Дрель"));
+    }
+
+    @Test
+    void testNameIsKeptWhileAnyItemUsesIt() {
+        suggester.remove(1);
+        assertThat(suggester.suggest("дрель", 10), contains("Дрель", "Дрель ударная"));
+
+        suggester.remove(3);
+        assertThat(suggester.suggest("дрель", 10), contains("Дрель ударная"));
+    }
+
+    @Test
+    void testUnavailableAndRenamedItems() {
+        suggester.update(Item.builder().id(2).name("Дрель ударная").available(false).build());
+        suggester.update(Item.builder().id(1).name("Пила").available(true).build());
+
+        assertThat(suggester.suggest("дрель", 10), contains("Дрель"));
+        assertThat(suggester.suggest("пи", 10), contains("Пила"));
+    }
+
+    @Test
+    void testLeastUsedNameIsEvictedWhenFull() {
+        suggester.update(Item.builder().id(4).name("Пила").available(true).build());
+        suggester.update(Item.builder().id(5).name("Отвертка").available(true).build());
+
+        // из названий с одной вещью вытесняется первое по алфавиту, «Дрель» носят две вещи
+        assertThat(suggester.size(), is(3));
+        assertThat(suggester.suggest("отв", 10), contains("Отвертка"));
+        assertThat(suggester.suggest("др", 10), contains("Дрель"));
+        assertThat(suggester.suggest("пи", 10), contains("Пила"));
+
+        suggester.remove(2);
+        suggester.remove(4);
+        suggester.update(Item.builder().id(2).name("Дрель ударная").available(true).build());
+
+        assertThat(suggester.suggest("др", 10), contains("Дрель", "Дрель ударная"));
+        assertThat(suggester.suggest("пи", 10), empty());
+    }
+}
@@ -4,7 +4,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
@@ -48,15 +51,23 @@ public class ItemRepositoryJpaTest {
                 .owner(owner)
                 .build();
         itemRepository.save(item2);
+
+        Item unavailableItem = Item.builder()
+                .name("описание недоступной вещи")
+                .description("вещь 3")
+                .available(false)
+                .owner(owner)
+                .build();
+        itemRepository.save(unavailableItem);
     }
 
     @Test
     void testFindBySearchKey() {
-        List<Item> items = itemRepository.findBySearchKey("описание");
+        List<ItemDto> items = itemRepository.findBySearchKey("описание", PageRequest.of(0, 10, Sort.by("id")));
 
         assertEquals(items.size(), 1);
         assertEquals(items.get(0).getName(), itemAdded.getName());
-        assertEquals(items.get(0).getOwner(), itemAdded.getOwner());
+        assertEquals(items.get(0).getOwnerId(), itemAdded.getOwner().getId());
         assertEquals(items.get(0).getAvailable(), itemAdded.getAvailable());
         assertEquals(items.get(0).getDescription(), itemAdded.getDescription());
     }
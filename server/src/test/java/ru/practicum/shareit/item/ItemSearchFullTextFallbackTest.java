@@ -0,0 +1,56 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchService;
+import ru.practicum.shareit.item.search.SearchMode;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@Transactional
+@SpringBootTest(
+        properties = "shareit.search.mode=FTS",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemSearchFullTextFallbackTest {
+
+    private final EntityManager em;
+    private final ItemService itemService;
+    private final ItemSearchService itemSearchService;
+
+    @Test
+    void testFullTextModeFallsBackToLikeOnH2() {
+        User owner = User.builder()
+                .name("owner")
+                .email("owner@email.com")
+                .build();
+        em.persist(owner);
+
+        Item item = Item.builder()
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .owner(owner)
+                .build();
+        em.persist(item);
+        em.flush();
+
+        List<ItemDto> items = new ArrayList<>(itemService.findItems("дРелЬ", 0, 10));
+
+        assertThat(itemSearchService.getMode(), is(SearchMode.LIKE));
+        assertThat(items.size(), is(1));
+        assertThat(items.get(0).getId(), is(item.getId()));
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.analysis.TextAnalyzer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class ItemSearchIndexTest {
+
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void beforeEach() {
+        index = new ItemSearchIndex(new TextAnalyzer());
+        index.index(Item.builder().id(1).name("Дрель").description("Простая дрель").available(true).build());
+        index.index(Item.builder().id(2).name("Отвертка").description("Аккумуляторная отвертка").available(true).build());
+        index.index(Item.builder().id(3).name("Дрель ударная").description("Аккумуляторная дрель").available(true).build());
+    }
+
+    @Test
+    void testSearchByWordPrefixIgnoringCase() {
+        assertThat(index.search("дРел", 0, 10), contains(1, 3));
+        assertThat(index.search("оТверТ", 0, 10), contains(2));
+    }
+
+    @Test
+    void testSearchMatchesOtherWordForms() {
+        assertThat(index.search("дрели", 0, 10), contains(1, 3));
+        assertThat(index.search("аккумуляторную отвертку", 0, 10), contains(2));
+        assertThat(index.search("дрель для ударов", 0, 10), contains(3));
+    }
+
+    @Test
+    void testSearchRequiresAllWords() {
+        assertThat(index.search("аккумуляторная дрель", 0, 10), contains(3));
+        assertThat(index.search("простая отвертка", 0, 10), empty());
+    }
+
+    @Test
+    void testReindexReplacesOldTokens() {
+        index.index(Item.builder().id(1).name("Пила").description("Ручная пила").available(true).build());
+
+        assertThat(index.search("дрель", 0, 10), contains(3));
+        assertThat(index.search("пила", 0, 10), contains(1));
+    }
+
+    @Test
+    void testUnavailableItemsAreFilteredOut() {
+        index.index(Item.builder().id(3).name("Дрель ударная").description("Аккумуляторная дрель").available(false).build());
+
+        assertThat(index.search("дрель", 0, 10), contains(1));
+
+        index.index(Item.builder().id(3).name("Дрель ударная").description("Аккумуляторная дрель").available(true).build());
+
+        assertThat(index.search("дрель", 0, 10), contains(1, 3));
+    }
+
+    @Test
+    void testRemove() {
+        index.remove(2);
+
+        assertThat(index.search("отвертка", 0, 10), empty());
+    }
+
+    @Test
+    void testSearchReturnsRequestedPageInIdOrder() {
+        for (int id = 10; id < 20; id++) {
+            index.index(Item.builder().id(id).name("Дрель " + id).description("Дрели и дрелька").available(id % 2 == 0)
+                    .build());
+        }
+
+        assertThat(index.search("дрел", 0, 3), contains(1, 3, 10));
+        assertThat(index.search("дрел", 3, 3), contains(12, 14, 16));
+        assertThat(index.search("дрел", 6, 3), contains(18));
+        assertThat(index.search("дрел аккумулятор", 0, 10), contains(3));
+    }
+}
@@ -0,0 +1,292 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import ru.practicum.shareit.cache.EntityChangeEvent;
+import ru.practicum.shareit.cache.EntityType;
+import ru.practicum.shareit.cache.LocalCachesResyncEvent;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchService;
+import ru.practicum.shareit.item.search.SearchMode;
+import ru.practicum.shareit.item.search.analysis.TextAnalyzer;
+import ru.practicum.shareit.user.model.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static ru.practicum.shareit.item.search.ItemSearchService.searchableText;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSearchServiceTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemNameSuggester itemNameSuggester;
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ItemSearchCache itemSearchCache;
+    private Item item;
+    private ItemDto itemDto;
+    private ItemView itemView;
+
+    @BeforeEach
+    void beforeEach() {
+        itemSearchCache = new ItemSearchCache(1000, Duration.ofMinutes(1), new SimpleMeterRegistry(), new TextAnalyzer());
+        item = Item.builder()
+                .id(1)
+                .name("дрель")
+                .description("описание дрели")
+                .available(true)
+                .owner(new User(1, "owner", "owner@email.com"))
+                .build();
+        itemDto = ItemMapper.itemToDto(item);
+        itemView = new SpelAwareProxyProjectionFactory().createProjection(ItemView.class, Map.of(
+                "id", item.getId(),
+                "name", item.getName(),
+                "description", item.getDescription(),
+                "available", item.getAvailable(),
+                "ownerId", item.getOwner().getId()));
+    }
+
+    @Test
+    void testSearchWithIndex() {
+        ItemSearchService searchService = new ItemSearchService(
+                itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.INDEX);
+        Mockito.when(itemSearchIndex.isReady()).thenReturn(true);
+        Mockito.when(itemSearchIndex.search("дрел", 2, 2)).thenReturn(List.of(3, 4));
+        Mockito.when(itemRepository.findAvailableDtosByIdIn(any())).thenReturn(List.of(itemDto));
+
+        List<ItemDto> items = searchService.search("дрел", PageRequest.of(1, 2));
+
+        assertThat(items, is(List.of(itemDto)));
+        Mockito.verify(itemRepository).findAvailableDtosByIdIn(List.of(3, 4));
+        Mockito.verify(itemRepository, Mockito.never()).findBySearchKey(any(), any());
+    }
+
+    @Test
+    void testSearchFallsBackToDatabaseWhenIndexIsNotReady() {
+        ItemSearchService searchService = new ItemSearchService(
+                itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.INDEX);
+        Mockito.when(itemSearchIndex.isReady()).thenReturn(false);
+        Mockito.when(itemRepository.findBySearchKey(any(), any())).thenReturn(List.of(itemDto));
+
+        List<ItemDto> items = searchService.search("дрел", PageRequest.of(0, 10));
+
+        assertThat(items, is(List.of(itemDto)));
+    }
+
+    @Test
+    void testFullTextSearchBuildsPrefixQuery() {
+        ItemSearchService searchService = new ItemSearchService(
+                itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.FTS);
+        Mockito.when(itemRepository.findByFullTextQuery(any(), Mockito.anyInt(), Mockito.anyLong()))
+                .thenReturn(List.of(itemView));
+
+        List<ItemDto> items = searchService.search("Аккумуляторная дРЕЛ", PageRequest.of(2, 10));
+
+        assertThat(items, is(List.of(itemDto)));
+        Mockito.verify(itemRepository).findByFullTextQuery("аккумуляторная:* & дрел:*", 10, 20L);
+    }
+
+    @Test
+    void testTrigramSearchPassesNormalizedText() {
+        ItemSearchService searchService = new ItemSearchService(
+                itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.TRIGRAM);
+        Mockito.when(itemRepository.findBySimilarity(any(), Mockito.anyInt(), Mockito.anyLong()))
+                .thenReturn(List.of(itemView));
+
+        List<ItemDto> items = searchService.search(" дРльь ", PageRequest.of(0, 10));
+
+        assertThat(items, is(List.of(itemDto)));
+        Mockito.verify(itemRepository).findBySimilarity("дрльь", 10, 0L);
+    }
+
+    @Test
+    void testItemIsIndexedOnlyInIndexMode() {
+        new ItemSearchService(itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.LIKE).onItemSaved(item, null);
+        Mockito.verify(itemSearchIndex, Mockito.never()).index(any());
+
+        new ItemSearchService(itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.INDEX).onItemSaved(item, null);
+        Mockito.verify(itemSearchIndex).index(item);
+        Mockito.verify(itemNameSuggester, Mockito.times(2)).update(item);
+    }
+
+    @Test
+    void testSuggestLimitsSize() {
+        ItemSearchService searchService = new ItemSearchService(
+                itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.INDEX);
+        Mockito.when(itemNameSuggester.suggest(any(), Mockito.anyInt())).thenReturn(List.of("Дрель"));
+
+        List<String> suggestions = searchService.suggest("др", 1000);
+
+        assertThat(suggestions, is(List.of("Дрель")));
+        Mockito.verify(itemNameSuggester).suggest("др", 20);
+    }
+
+    @Test
+    void testSuggestLimitIsAtLeastOne() {
+        ItemSearchService searchService = new ItemSearchService(
+                itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.INDEX);
+
+        searchService.suggest("др", -5);
+
+        Mockito.verify(itemNameSuggester).suggest("др", 1);
+    }
+
+    @Test
+    void testSearchResultsAreCachedByNormalizedQuery() {
+        ItemSearchService searchService = new ItemSearchService(
+                itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.LIKE);
+        Mockito.when(itemRepository.findBySearchKey(any(), any())).thenReturn(List.of(itemDto));
+
+        searchService.search("Дрель", PageRequest.of(0, 10));
+        searchService.search("  дрель ", PageRequest.of(0, 10));
+        searchService.search("дрель", PageRequest.of(1, 10));
+
+        Mockito.verify(itemRepository, Mockito.times(2)).findBySearchKey(any(), any());
+    }
+
+    @Test
+    void testCacheIsInvalidatedOnlyForMatchingQueries() {
+        ItemSearchService searchService = new ItemSearchService(
+                itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.LIKE);
+        Mockito.when(itemRepository.findBySearchKey(any(), any())).thenReturn(List.of(itemDto));
+        searchService.search("дрель", PageRequest.of(0, 10));
+        searchService.search("пила", PageRequest.of(0, 10));
+
+        Item saw = Item.builder().id(2).name("Пила").description("Ручная пила").available(true).build();
+        searchService.onItemSaved(saw, null);
+        searchService.search("дрель", PageRequest.of(0, 10));
+        searchService.search("пила", PageRequest.of(0, 10));
+
+        Mockito.verify(itemRepository, Mockito.times(1)).findBySearchKey(Mockito.eq("дрель"), any());
+        Mockito.verify(itemRepository, Mockito.times(2)).findBySearchKey(Mockito.eq("пила"), any());
+    }
+
+    @Test
+    void testQueriesWithSameWordsAreCachedSeparately() {
+        ItemSearchService searchService = new ItemSearchService(
+                itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.LIKE);
+        Mockito.when(itemRepository.findBySearchKey(any(), any())).thenReturn(List.of(itemDto));
+
+        searchService.search("c++", PageRequest.of(0, 10));
+        searchService.search("c", PageRequest.of(0, 10));
+        searchService.search("дрель-1", PageRequest.of(0, 10));
+        searchService.search("дрель 1", PageRequest.of(0, 10));
+
+        Mockito.verify(itemRepository).findBySearchKey(Mockito.eq("c++"), any());
+        Mockito.verify(itemRepository).findBySearchKey(Mockito.eq("c"), any());
+        Mockito.verify(itemRepository).findBySearchKey(Mockito.eq("дрель-1"), any());
+        Mockito.verify(itemRepository).findBySearchKey(Mockito.eq("дрель 1"), any());
+    }
+
+    @Test
+    void testResultLoadedDuringInvalidationIsNotCached() {
+        ItemSearchService searchService = new ItemSearchService(
+                itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.LIKE);
+        Item drill = Item.builder().id(3).name("Дрель").description("Новая дрель").available(true).build();
+        Mockito.when(itemRepository.findBySearchKey(any(), any()))
+                .thenAnswer(invocation -> {
+                    // изменение фиксируется, пока результат еще загружается
+                    searchService.onItemSaved(drill, null);
+                    return List.of(itemDto);
+                })
+                .thenReturn(List.of(itemDto));
+
+        searchService.search("дрель", PageRequest.of(0, 10));
+        searchService.search("дрель", PageRequest.of(0, 10));
+        searchService.search("дрель", PageRequest.of(0, 10));
+
+        Mockito.verify(itemRepository, Mockito.times(2)).findBySearchKey(Mockito.eq("дрель"), any());
+    }
+
+    @Test
+    void testChangedItemsAreReloadedInReadWriteTransaction() {
+        ItemSearchService searchService = new ItemSearchService(
+                itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.INDEX);
+        Mockito.when(itemRepository.findAllById(List.of(1, 2))).thenReturn(List.of(item));
+
+        searchService.onEntityChanged(new EntityChangeEvent("other-node", EntityType.ITEM, List.of(1, 2)));
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        Mockito.verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().isReadOnly(), is(false));
+        Mockito.verify(itemSearchIndex).index(item);
+        Mockito.verify(itemSearchIndex).remove(2);
+    }
+
+    @Test
+    void testItemChangedDuringBuildIsReindexedAfterLoad() {
+        ItemSearchService searchService = new ItemSearchService(
+                itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.INDEX);
+        Item renamed = Item.builder()
+                .id(item.getId())
+                .name("перфоратор")
+                .description(item.getDescription())
+                .available(true)
+                .owner(item.getOwner())
+                .build();
+        Mockito.when(itemRepository.findAllByIdGreaterThanOrderById(Mockito.eq(0), any()))
+                .thenAnswer(invocation -> {
+                    // вещь изменена после того, как пакет прочитан, но до его записи в индекс
+                    searchService.onItemSaved(renamed, searchableText(item));
+                    return List.of(item);
+                });
+        Mockito.when(itemRepository.findAllById(Set.of(item.getId()))).thenReturn(List.of(renamed));
+
+        searchService.buildIndex();
+
+        InOrder inOrder = Mockito.inOrder(itemSearchIndex);
+        inOrder.verify(itemSearchIndex).index(renamed);
+        inOrder.verify(itemSearchIndex).index(item);
+        inOrder.verify(itemSearchIndex).index(renamed);
+        inOrder.verify(itemSearchIndex).markReady();
+    }
+
+    @Test
+    void testResyncRemovesItemsMissingFromDatabase() {
+        ItemSearchService searchService = new ItemSearchService(
+                itemRepository, itemSearchIndex, itemNameSuggester, itemSearchCache, new TextAnalyzer(), dataSource, transactionManager, SearchMode.INDEX);
+        Mockito.when(itemRepository.findAllByIdGreaterThanOrderById(Mockito.eq(0), any())).thenReturn(List.of(item));
+        Mockito.when(itemSearchIndex.itemIds()).thenReturn(List.of(item.getId(), 7));
+        Mockito.when(itemNameSuggester.itemIds()).thenReturn(List.of(7));
+
+        searchService.onResync(new LocalCachesResyncEvent());
+
+        Mockito.verify(itemSearchIndex).index(item);
+        Mockito.verify(itemSearchIndex).remove(7);
+        Mockito.verify(itemSearchIndex, Mockito.never()).remove(item.getId());
+        Mockito.verify(itemNameSuggester).remove(7);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,7 +12,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.booking.dao.BookingRepository;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingView;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.cache.EntityChangeNotifier;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.AvailabilityException;
 import ru.practicum.shareit.item.dao.CommentRepository;
@@ -19,20 +22,24 @@ import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchService;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.request.dao.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 
 @ExtendWith(MockitoExtension.class)
 public class ItemServiceTest {
@@ -48,6 +55,10 @@ public class ItemServiceTest {
     private CommentRepository commentRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemSearchService itemSearchService;
+    @Mock
+    private EntityChangeNotifier entityChangeNotifier;
 
     private User owner;
     private User requester;
@@ -78,7 +89,11 @@ public class ItemServiceTest {
                 userRepository,
                 bookingRepository,
                 commentRepository,
-                itemRequestRepository);
+                itemRequestRepository,
+                itemSearchService,
+                new UserExistenceCache(userRepository, 1000, Duration.ofMinutes(10), Duration.ofSeconds(30),
+                        new SimpleMeterRegistry()),
+                entityChangeNotifier);
 
         owner = new User(1, "user name 1", "email1@email.com");
         requester = new User(2, "user name 2", "email2@email.com");
@@ -211,7 +226,8 @@ public class ItemServiceTest {
 
     @Test
     void testCreateItem() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(owner));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(userRepository.getReferenceById(any())).thenReturn(owner);
         Mockito.when(itemRequestRepository.findById(any())).thenReturn(Optional.ofNullable(itemRequest));
         Mockito.when(itemRepository.save(any())).thenReturn(item);
 
@@ -226,6 +242,32 @@ public class ItemServiceTest {
 
     }
 
+    @Test
+    void testCreateItems() {
+        ItemDto withMissingRequest = ItemDto.builder()
+                .name("вещь 3")
+                .description("описание вещи 3")
+                .available(true)
+                .requestId(99)
+                .build();
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(userRepository.getReferenceById(any())).thenReturn(owner);
+        Mockito.when(itemRequestRepository.findAllById(Set.of(itemRequest.getId(), 99)))
+                .thenReturn(List.of(itemRequest));
+        Mockito.when(itemRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            items.get(0).setId(10);
+            return items;
+        });
+
+        List<ItemImportResult> results = itemService.createItems(List.of(withMissingRequest, itemDto), owner.getId());
+
+        assertThat(results.get(0).getError(), is("Запрос с ID 99 не найден"));
+        assertThat(results.get(1).getId(), is(10));
+        Mockito.verify(itemRequestRepository, Mockito.times(1)).findAllById(any());
+        Mockito.verify(entityChangeNotifier).itemsChanged(List.of(10));
+    }
+
     @Test
     void testUpdateItem() {
         Mockito.when(itemRepository.findById(any())).thenReturn(Optional.ofNullable(item));
@@ -256,13 +298,13 @@ public class ItemServiceTest {
 
     @Test
     void testGetItemById() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(owner));
-        Mockito.when(itemRepository.findById(any())).thenReturn(Optional.ofNullable(item));
-        Mockito.when(commentRepository.findByItemId(any())).thenReturn(Collections.emptyList());
-        Mockito.when(bookingRepository
-                .findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(any(), any(), any())).thenReturn(nextBooking);
-        Mockito.when(bookingRepository
-                .findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(any(), any(), any())).thenReturn(lastBooking);
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
+        Mockito.when(itemRepository.findResponseById(any())).thenReturn(Optional.of(new ItemResponseDto(
+                item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                owner.getId(), owner.getName(), owner.getEmail())));
+        Mockito.when(commentRepository.findResponsesByItemId(any())).thenReturn(Collections.emptyList());
+        Mockito.when(bookingRepository.findLastAndNextApprovedBookings(eq(List.of(item.getId())), any()))
+                .thenReturn(List.of(toView(lastBooking, false), toView(nextBooking, true)));
 
         ItemResponseDto itemResponseDtoActual = itemService.getItemById(item.getId(), owner.getId());
 
@@ -277,9 +319,10 @@ public class ItemServiceTest {
 
     @Test
     void testGetUserItems() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(owner));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
         Mockito.when(itemRepository.findAllByOwnerIdOrderById(any(), any())).thenReturn(List.of(item, item2));
-        Mockito.when(bookingRepository.findApprovedBookingsFor(any(), any())).thenReturn(List.of(lastBooking, nextBooking));
+        Mockito.when(bookingRepository.findLastAndNextApprovedBookings(eq(List.of(item.getId(), item2.getId())), any()))
+                .thenReturn(List.of(toView(lastBooking, false), toView(nextBooking, true)));
         Mockito.when(commentRepository.findCommentsForItemsIn(any(), any())).thenReturn(Collections.emptyList());
 
         Collection<ItemResponseDto> itemResponseDtoActual = itemService.getUserItems(owner.getId(), 0, 10);
@@ -343,9 +386,9 @@ public class ItemServiceTest {
 
     @Test
     void testFindItems() {
-        Mockito.when(itemRepository.findBySearchKey(any())).thenReturn(List.of(item));
+        Mockito.when(itemSearchService.search(any(), any())).thenReturn(List.of(itemDto));
 
-        Collection<ItemDto> itemResponseDtoActual = itemService.findItems("вещь");
+        Collection<ItemDto> itemResponseDtoActual = itemService.findItems("вещь", 0, 10);
 
         ArrayList<ItemDto> itemResponseDtoArrayList = new ArrayList<>(itemResponseDtoActual);
 
@@ -357,10 +400,65 @@ public class ItemServiceTest {
         assertThat(itemResponseDtoArrayList.get(0).getName(), is(itemDto.getName()));
     }
 
+    @Test
+    void testFindItemsPageSizeIsLimited() {
+        itemService.findItems("вещ", 0, 1000);
+
+        Mockito.verify(itemSearchService).search(any(),
+                Mockito.argThat(page -> page.getPageSize() == 100 && page.getSort().isSorted()));
+    }
+
+    @Test
+    void testFindItemsKeepsExactOffsetWhenPageSizeIsLimited() {
+        itemService.findItems("вещ", 150, 1000);
+
+        Mockito.verify(itemSearchService).search(any(),
+                Mockito.argThat(page -> page.getOffset() == 150 && page.getPageSize() == 100));
+    }
+
     @Test
     void testFindItemsWhenSearchKeyIsEmpty() {
-        Collection<ItemDto> itemResponseDtoActual = itemService.findItems("");
+        Collection<ItemDto> itemResponseDtoActual = itemService.findItems("", 0, 10);
 
         assertThat(itemResponseDtoActual.size(), is(0));
     }
+
+    private static ItemBookingView toView(Booking booking, boolean next) {
+        return new ItemBookingView() {
+            @Override
+            public Integer getItemId() {
+                return booking.getItem().getId();
+            }
+
+            @Override
+            public Integer getId() {
+                return booking.getId();
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return booking.getStart();
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return booking.getEnd();
+            }
+
+            @Override
+            public Integer getBookerId() {
+                return booking.getBooker().getId();
+            }
+
+            @Override
+            public Status getStatus() {
+                return booking.getStatus();
+            }
+
+            @Override
+            public Boolean getNext() {
+                return next;
+            }
+        };
+    }
 }
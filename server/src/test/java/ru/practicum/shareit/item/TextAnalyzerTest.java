@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.search.analysis.TextAnalyzer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class TextAnalyzerTest {
+
+    private final TextAnalyzer analyzer = new TextAnalyzer();
+
+    @Test
+    void testRussianWordFormsHaveSameStem() {
+        assertThat(analyzer.analyze("Дрель, дрели, дрелью"), contains("дрел"));
+        assertThat(analyzer.analyze("Аккумуляторная аккумуляторный"), contains("аккумуляторн"));
+        assertThat(analyzer.analyze("отвертка отвертками"), contains("отвертк"));
+    }
+
+    @Test
+    void testEnglishPluralsHaveSameStem() {
+        assertThat(analyzer.analyze("Battery batteries"), contains("batter"));
+        assertThat(analyzer.analyze("drills drill"), contains("drill"));
+    }
+
+    @Test
+    void testStopWordsAreRemoved() {
+        assertThat(analyzer.analyze("Дрель для дома и сада"), contains("дрел", "дом", "сад"));
+        assertThat(analyzer.analyze("the and of"), empty());
+    }
+
+    @Test
+    void testShortWordsAreNotStemmed() {
+        assertThat(analyzer.analyze("дре пила 2"), contains("дре", "пил", "2"));
+    }
+
+    @Test
+    void testTokenizeOnlyLowercases() {
+        assertThat(analyzer.tokenize("Дрель ДЛЯ дома"), contains("дрель", "для", "дома"));
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.itemRequest;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,11 +20,13 @@ import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -55,7 +58,9 @@ public class ItemRequestServiceTest {
     @BeforeEach
     void beforeEach() {
 
-        itemRequestService = new ItemRequestServiceImpl(userRepository, itemRequestRepository, itemRepository);
+        itemRequestService = new ItemRequestServiceImpl(userRepository, itemRequestRepository, itemRepository,
+                new UserExistenceCache(userRepository, 1000, Duration.ofMinutes(10), Duration.ofSeconds(30),
+                new SimpleMeterRegistry()));
 
         owner = new User(1, "user name 1", "email1@email.com");
         requester = new User(2, "user name 2", "email2@email.com");
@@ -116,7 +121,7 @@ public class ItemRequestServiceTest {
 
     @Test
     void testGetItemRequestsByUserId() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(requester));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
         Mockito.when(itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(any())).thenReturn(List.of(itemRequest));
         Mockito.when(itemRepository.findAllByRequestIdIn(any())).thenReturn(List.of(item));
 
@@ -169,7 +174,7 @@ public class ItemRequestServiceTest {
 
     @Test
     void testGetItemRequestById() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(requester));
+        Mockito.when(userRepository.existsById(any())).thenReturn(true);
         Mockito.when(itemRequestRepository.findById(any())).thenReturn(Optional.ofNullable(itemRequest));
 
         Mockito.when(itemRepository.findAllByRequestIdIn(any())).thenReturn(List.of(item));
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.util.SqlStatementAssertions.assertStatementCount;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:shareit-sql-metrics")
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "debug"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SqlMetricsTest {
+
+    private final MockMvc mvc;
+    private final MeterRegistry meterRegistry;
+    private final ItemService itemService;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+
+    private User owner;
+
+    @BeforeEach
+    void beforeEach() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        owner = userRepository.save(new User(null, "owner", "owner@email.com"));
+        for (int i = 0; i < 3; i++) {
+            itemRepository.save(Item.builder()
+                    .name("вещь " + i)
+                    .description("описание")
+                    .available(true)
+                    .owner(owner)
+                    .build());
+        }
+    }
+
+    @Test
+    void testStatementsArePublishedPerEndpoint() throws Exception {
+        mvc.perform(get("/items").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatsHeaderAdvice.STATEMENTS_HEADER, "4"))
+                .andExpect(header().exists(SqlStatsHeaderAdvice.TIME_HEADER));
+
+        DistributionSummary statements = meterRegistry.find(SqlMetricsInterceptor.STATEMENTS_METRIC)
+                .tag("endpoint", "ItemController.getUserItems")
+                .summary();
+        Timer time = meterRegistry.find(SqlMetricsInterceptor.TIME_METRIC)
+                .tag("endpoint", "ItemController.getUserItems")
+                .timer();
+        assertThat(statements, notNullValue());
+        assertThat(time, notNullValue());
+        assertThat(statements.count(), greaterThanOrEqualTo(1L));
+        assertThat(statements.max(), is(4.0));
+    }
+
+    @Test
+    void testStreamingStatementsArePublishedAfterBodyIsWritten() throws Exception {
+        MvcResult result = mvc.perform(get("/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(SqlStatementStats.current(), nullValue());
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.find(SqlMetricsInterceptor.STATEMENTS_METRIC)
+                .tag("endpoint", "UserController.exportUsers")
+                .summary();
+        assertThat(statements, notNullValue());
+        assertThat(statements.count(), is(1L));
+        assertThat(statements.max(), greaterThanOrEqualTo(1.0));
+    }
+
+    @Test
+    void testAssertStatementCount() {
+        // пользователь, вещи с владельцем, последние и следующие бронирования, отзывы
+        assertStatementCount(4, () -> itemService.getUserItems(owner.getId(), 0, 20));
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.service.EmailBloomFilter;
+
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class EmailBloomFilterTest {
+
+    private static final int EMAILS = 10_000;
+
+    private final EmailBloomFilter filter = new EmailBloomFilter(Mockito.mock(UserRepository.class), EMAILS, 0.01);
+
+    @Test
+    void testAnyEmailMightBeTakenUntilLoaded() {
+        assertThat(filter.mightContain("user@email.com"), is(true));
+    }
+
+    @Test
+    void testNoFalseNegativesAndFewFalsePositives() {
+        filter.load();
+        assertThat(filter.mightContain("user@email.com"), is(false));
+
+        IntStream.range(0, EMAILS).parallel().forEach(i -> filter.put("user" + i + "@email.com"));
+
+        assertThat(IntStream.range(0, EMAILS).allMatch(i -> filter.mightContain("user" + i + "@email.com")), is(true));
+        long falsePositives = IntStream.range(0, EMAILS)
+                .filter(i -> filter.mightContain("other" + i + "@email.com"))
+                .count();
+        assertThat(falsePositives, lessThan(EMAILS / 50L));
+    }
+}
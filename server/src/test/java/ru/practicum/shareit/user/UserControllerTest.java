@@ -5,12 +5,12 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -18,12 +18,16 @@ import ru.practicum.shareit.user.service.UserService;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,7 +36,6 @@ public class UserControllerTest {
     @Mock
     private UserService userService;
 
-    @InjectMocks
     private UserController userController;
 
     private final ObjectMapper mapper = new ObjectMapper();
@@ -43,6 +46,7 @@ public class UserControllerTest {
     @BeforeEach
     void setup() {
         mapper.registerModule(new JavaTimeModule());
+        userController = new UserController(userService, mapper);
 
         mvc = MockMvcBuilders
                 .standaloneSetup(userController)
@@ -117,7 +121,7 @@ public class UserControllerTest {
 
     @Test
     void testGetAllUsers() throws Exception {
-        Mockito.when(userService.getAllUsers()).thenReturn(List.of(userDto));
+        Mockito.when(userService.getAllUsers(0, 20)).thenReturn(List.of(userDto));
 
         mvc.perform(get("/users")
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -127,7 +131,41 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$[0].email", is(userDto.getEmail())))
                 .andExpect(jsonPath("$[0].name", is(userDto.getName())));
 
-        Mockito.verify(userService, Mockito.times(1)).getAllUsers();
+        Mockito.verify(userService, Mockito.times(1)).getAllUsers(0, 20);
+    }
+
+    @Test
+    void testGetAllUsersWithCursor() throws Exception {
+        Mockito.when(userService.getUsersAfter("", 1)).thenReturn(List.of(userDto));
+
+        mvc.perform(get("/users")
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(UserController.NEXT_CURSOR_HEADER, String.valueOf(userDto.getId())))
+                .andExpect(jsonPath("$[0].id", is(userDto.getId()), Integer.class));
+    }
+
+    @Test
+    void testExportUsers() throws Exception {
+        UserDto otherUserDto = new UserDto(2, "other name", "other@email.com");
+        Mockito.doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            consumer.accept(userDto);
+            consumer.accept(otherUserDto);
+            return null;
+        }).when(userService).exportUsers(any());
+
+        MvcResult result = mvc.perform(get("/users/export").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(mapper.writeValueAsString(userDto) + "\n"
+                        + mapper.writeValueAsString(otherUserDto) + "\n"));
     }
 
     @Test
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Повторный email отклоняется уникальным ограничением БД: INSERT выполняется до фиксации транзакции,
+ * и нарушение ограничения превращается в 409, а не в 500.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class UserEmailConflictTest {
+
+    private static final String USER = "{\"name\":\"user\",\"email\":\"conflict@email.com\"}";
+
+    private final MockMvc mvc;
+    private final UserRepository userRepository;
+
+    @AfterEach
+    void afterEach() {
+        userRepository.findAll().stream()
+                .filter(user -> user.getEmail().equals("conflict@email.com"))
+                .forEach(userRepository::delete);
+    }
+
+    @Test
+    void testDuplicateEmailIsConflict() throws Exception {
+        mvc.perform(post("/users")
+                        .content(USER)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mvc.perform(post("/users")
+                        .content(USER)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class UserExistenceCacheTest {
+
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+    private final UserExistenceCache cache = new UserExistenceCache(userRepository, 1000,
+            Duration.ofMinutes(10), Duration.ofSeconds(30), new SimpleMeterRegistry());
+
+    @Test
+    void testExistingUserIsCheckedOnce() {
+        Mockito.when(userRepository.existsById(1)).thenReturn(true);
+
+        assertThat(cache.exists(1), is(true));
+        assertThat(cache.exists(1), is(true));
+
+        Mockito.verify(userRepository, Mockito.times(1)).existsById(1);
+    }
+
+    @Test
+    void testMissingUserIsCachedUntilInvalidated() {
+        Mockito.when(userRepository.existsById(2)).thenReturn(false, true);
+
+        assertThat(cache.exists(2), is(false));
+        assertThat(cache.exists(2), is(false));
+
+        cache.invalidate(2);
+
+        assertThat(cache.exists(2), is(true));
+        Mockito.verify(userRepository, Mockito.times(2)).existsById(2);
+    }
+
+    @Test
+    void testNullIdDoesNotExist() {
+        assertThat(cache.exists(null), is(false));
+
+        Mockito.verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.metrics.SecondLevelCacheMetrics;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ru.practicum.shareit.util.SqlStatementAssertions.assertStatementCount;
+
+/**
+ * Пользователи читаются из кэша второго уровня, изменения и удаление сразу отражаются в кэше.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class UserSecondLevelCacheTest {
+
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    void testUserIsReadFromCacheAndKeptInSync() {
+        UserDto user = userService.createUser(new UserDto(null, "cached user", "cached@email.com"));
+        Integer id = user.getId();
+
+        userService.getUserById(id);
+        UserDto cached = assertStatementCount(0, () -> userService.getUserById(id));
+        assertThat(cached.getName(), is("cached user"));
+
+        userService.updateUser(new UserDto(null, "renamed user", null), id);
+        UserDto updated = assertStatementCount(0, () -> userService.getUserById(id));
+        assertThat(updated.getName(), is("renamed user"));
+
+        assertThat(meterRegistry.get(SecondLevelCacheMetrics.HEAP_METRIC).tag("cache", "users").gauge().value(),
+                is(greaterThan(0.0)));
+
+        userService.deleteUser(id);
+        assertThrows(EntityNotFoundException.class, () -> userService.getUserById(id));
+
+        assertThat(meterRegistry.get(SecondLevelCacheMetrics.HIT_RATIO_METRIC).tag("cache", "users").gauge().value(),
+                is(greaterThan(0.0)));
+        assertThat(meterRegistry.get(SecondLevelCacheMetrics.HEAP_METRIC).tag("cache", "items").gauge().value(),
+                is(0.0));
+    }
+}
@@ -42,7 +42,7 @@ public class UserServiceIntegrationTest {
         em.flush();
 
         // when
-        Collection<UserDto> targetUsers = service.getAllUsers();
+        Collection<UserDto> targetUsers = service.getAllUsers(0, 10);
 
         assertThat(targetUsers.size(), is(userDtoList.size()));
 
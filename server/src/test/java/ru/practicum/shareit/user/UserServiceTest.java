@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,14 +9,22 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.cache.EntityChangeNotifier;
 import ru.practicum.shareit.exception.ConflictExistsException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.EmailBloomFilter;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -26,10 +35,14 @@ public class UserServiceTest {
 
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private EntityChangeNotifier entityChangeNotifier;
 
     @InjectMocks
     private UserServiceImpl userService;
 
+    private EmailBloomFilter emailBloomFilter;
+
     private User user;
     private UserDto userDto;
     private User updatedUser;
@@ -37,7 +50,10 @@ public class UserServiceTest {
 
     @BeforeEach
     void beforeEach() {
-        userService = new UserServiceImpl(userRepository);
+        emailBloomFilter = new EmailBloomFilter(userRepository, 1000, 0.01);
+        userService = new UserServiceImpl(userRepository, emailBloomFilter,
+                new UserExistenceCache(userRepository, 1000, Duration.ofMinutes(10), Duration.ofSeconds(30),
+                new SimpleMeterRegistry()), entityChangeNotifier);
 
         user = new User(1, "user name", "user@email.com");
         userDto = new UserDto(1, "user name", "user@email.com");
@@ -48,7 +64,7 @@ public class UserServiceTest {
 
     @Test
     void testCreateUser() {
-        Mockito.when(userRepository.save(any())).thenReturn(user);
+        Mockito.when(userRepository.saveAndFlush(any())).thenReturn(user);
 
         UserDto actualUser = userService.createUser(userDto);
 
@@ -60,7 +76,7 @@ public class UserServiceTest {
     @Test
     void testUpdateUser() {
         Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(user));
-        Mockito.when(userRepository.save(any())).thenReturn(updatedUser);
+        Mockito.when(userRepository.saveAndFlush(any())).thenReturn(updatedUser);
 
         UserDto actualUser = userService.updateUser(updatedUserDto, updatedUser.getId());
 
@@ -94,11 +110,47 @@ public class UserServiceTest {
                 exception.getMessage());
     }
 
+    @Test
+    void testCreateUserWhenEmailAlreadyExist() {
+        Mockito.when(userRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("UQ_USER_EMAIL"));
+
+        final ConflictExistsException exception = Assertions.assertThrows(
+                ConflictExistsException.class,
+                () -> userService.createUser(userDto));
+
+        Assertions.assertEquals("409 CONFLICT \"Email " + userDto.getEmail() + " уже зарегистрирован\"",
+                exception.getMessage());
+    }
+
+    @Test
+    void testUpdateUserWhenEmailTakenByOtherUser() {
+        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(user));
+        Mockito.when(userRepository.existsByEmailAndIdNot("other@email.com", user.getId())).thenReturn(true);
+
+        Assertions.assertThrows(
+                ConflictExistsException.class,
+                () -> userService.updateUser(new UserDto(null, null, "other@email.com"), user.getId()));
+        Mockito.verify(userRepository, Mockito.never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testUpdateUserSkipsEmailQueryWhenFilterRejectsEmail() {
+        Mockito.when(userRepository.findAllByIdGreaterThanOrderById(any(), any())).thenReturn(List.of(user));
+        emailBloomFilter.load();
+        Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(user));
+        Mockito.when(userRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UserDto actualUser = userService.updateUser(new UserDto(null, null, "free@email.com"), user.getId());
+
+        assertThat(actualUser.getEmail(), is("free@email.com"));
+        Mockito.verify(userRepository, Mockito.never()).existsByEmailAndIdNot(any(), any());
+    }
+
     @Test
     void testUpdateUserWhenEmailAlreadyExist() {
         Mockito.when(userRepository.findById(any())).thenReturn(Optional.ofNullable(updatedUser));
-        Mockito.when(userRepository.save(any()))
-                .thenThrow(new ConflictExistsException("Email " + updatedUserDto.getEmail() + " уже зарегистрирован"));
+        Mockito.when(userRepository.saveAndFlush(any()))
+                .thenThrow(new DataIntegrityViolationException("UQ_USER_EMAIL"));
 
         final ConflictExistsException exception = Assertions.assertThrows(
                 ConflictExistsException.class,
@@ -123,9 +175,9 @@ public class UserServiceTest {
 
     @Test
     void testGetAllUsers() {
-        Mockito.when(userRepository.findAll()).thenReturn(List.of(user));
+        Mockito.when(userRepository.findAllByOrderById(PageRequest.of(0, 10))).thenReturn(List.of(user));
 
-        Collection<UserDto> actualUsers = userService.getAllUsers();
+        Collection<UserDto> actualUsers = userService.getAllUsers(0, 10);
         List<UserDto> actualUsersList = new ArrayList<>(actualUsers);
 
         assertThat(actualUsersList.get(0).getEmail(), is(userDto.getEmail()));
@@ -133,6 +185,24 @@ public class UserServiceTest {
         assertThat(actualUsersList.get(0).getId(), is(userDto.getId()));
     }
 
+    @Test
+    void testGetUsersAfterCursor() {
+        Mockito.when(userRepository.findAllByIdGreaterThanOrderById(1, PageRequest.of(0, 10))).thenReturn(List.of(user));
+
+        assertThat(userService.getUsersAfter("1", 10), is(List.of(userDto)));
+        Assertions.assertThrows(ValidationException.class, () -> userService.getUsersAfter("abc", 10));
+    }
+
+    @Test
+    void testExportUsers() {
+        Mockito.when(userRepository.streamAll()).thenReturn(Stream.of(userDto, updatedUserDto));
+        List<UserDto> exported = new ArrayList<>();
+
+        userService.exportUsers(exported::add);
+
+        assertThat(exported, is(List.of(userDto, updatedUserDto)));
+    }
+
     @Test
     void testDeleteUserWhenDoesNotExist() {
         Mockito.when(userRepository.findById(any()))
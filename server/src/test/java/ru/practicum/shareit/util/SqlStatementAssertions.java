@@ -0,0 +1,34 @@
+package ru.practicum.shareit.util;
+
+import ru.practicum.shareit.metrics.SqlStatementStats;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Проверяет число SQL-запросов, выполненных через источник данных приложения в текущем потоке.
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static <T> T assertStatementCount(int expected, Supplier<T> action) {
+        SqlStatementStats stats = SqlStatementStats.start();
+        try {
+            T result = action.get();
+            assertEquals(expected, stats.getStatements(), "Число SQL-запросов");
+            return result;
+        } finally {
+            SqlStatementStats.stop();
+        }
+    }
+
+    public static void assertStatementCount(int expected, Runnable action) {
+        assertStatementCount(expected, () -> {
+            action.run();
+            return null;
+        });
+    }
+}